@@ -1,58 +1,189 @@
-import java.util.*;
+/*
+* **** ALL-PAIRS SHORTEST PATHS ****
+* Rows and columns of the result are dense node indices (see CsrGraph), so sparse city IDs no longer break the matrix.
+* Two strategies, picked from the density of the graph:
+*       1. Sparse graphs: one Dijkstra per source, the sources run in parallel with one DijkstraSearch workspace per thread.
+*          Cost O(V * E * log V).
+*       2. Dense graphs: Floyd-Warshall on a flat row-major int[] split into BLOCK x BLOCK tiles (cache-blocked), cost O(V^3).
+*          For every diagonal tile k the tiles are updated in three phases:
+*               phase 1: the diagonal tile (k, k) itself,
+*               phase 2: the tiles of row k and of column k (they only depend on tile (k, k)), in parallel,
+*               phase 3: all other tiles (they only depend on row k and column k), in parallel.
+* Both give the same matrix; unreachable pairs are Integer.MAX_VALUE.
+* For graphs whose matrix does not fit on the heap, writeAllShortestPaths streams the rows to a memory-mapped file instead.
+* */
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 public class AllSourcesShortestPath extends GraphReader {
 
+    // Strategy used to fill the distance matrix
+    public enum Strategy {
+        AUTO, PARALLEL_DIJKSTRA, BLOCKED_FLOYD_WARSHALL
+    }
+
+    // Tile size of the blocked Floyd-Warshall (three 64 x 64 int tiles fit in L2 cache)
+    static final int BLOCK = 64;
+    // "Infinity" inside the blocked Floyd-Warshall: the sum of two of them cannot overflow
+    private static final int INF = Integer.MAX_VALUE / 2;
+
     public AllSourcesShortestPath(String filePath) {
         super(filePath);
     }
 
-    // Method to find all shortest paths using Floyd-Warshall algorithm
+    // Constructor that accepts an already loaded graph
+    public AllSourcesShortestPath(CsrGraph graph) {
+        super(graph);
+    }
+
+    // Method to find all shortest paths, as one row per source
     public int[][] findAllShortestPaths() {
-        int numNodes = adjacencyList.size(); // Determines the number of nodes in the graph
-        int[][] distances = new int[numNodes][numNodes]; // Initializes a 2D array to store the shortest distances between all pairs of nodes.
+        int numNodes = csr.nodeCount();
+        int[] flat = findAllShortestPathsFlat(Strategy.AUTO, Runtime.getRuntime().availableProcessors());
+        int[][] distances = new int[numNodes][];
+        for (int i = 0; i < numNodes; i++) {
+            distances[i] = Arrays.copyOfRange(flat, i * numNodes, (i + 1) * numNodes);
+        }
+        return distances;
+    }
+
+    // Method to find all shortest paths into a flat row-major matrix: distance(i, j) = result[i * V + j]
+    public int[] findAllShortestPathsFlat(Strategy strategy, int parallelism) {
+        int numNodes = csr.nodeCount();
+        if ((long) numNodes * numNodes > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Distance matrix of " + numNodes + " nodes does not fit in an array");
+        }
+        if (strategy == Strategy.AUTO) {
+            strategy = chooseStrategy();
+        }
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try {
+            if (strategy == Strategy.PARALLEL_DIJKSTRA) {
+                return repeatedDijkstra(pool);
+            }
+            return blockedFloydWarshall(pool);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    // Method to stream all shortest paths to a memory-mapped matrix file instead of the heap (see DistanceMatrixFile)
+    public void writeAllShortestPaths(String matrixPath, int parallelism) throws IOException {
+        DistanceMatrixFile.write(csr, matrixPath, parallelism);
+    }
+
+    /*
+    * V Dijkstra runs cost about V * E * log V, Floyd-Warshall V^3 (with a much smaller constant, the inner loop is a tight scan).
+    * Dijkstra wins when the graph is sparse: E * log V < V^2 / 4.
+    * */
+    Strategy chooseStrategy() {
+        int numNodes = csr.nodeCount();
+        double log = Math.log(Math.max(numNodes, 2)) / Math.log(2);
+        return csr.edgeCount() * log < (double) numNodes * numNodes / 4 ? Strategy.PARALLEL_DIJKSTRA : Strategy.BLOCKED_FLOYD_WARSHALL;
+    }
+
+    // One Dijkstra per source, each thread reuses its own search workspace
+    private int[] repeatedDijkstra(ForkJoinPool pool) {
+        int numNodes = csr.nodeCount();
+        int[] distances = new int[numNodes * numNodes];
+        ThreadLocal<DijkstraSearch> searches = ThreadLocal.withInitial(() -> new DijkstraSearch(csr));
+        forEach(pool, numNodes, source -> {
+            DijkstraSearch search = searches.get();
+            search.run(source);
+            search.copyDistances(distances, source * numNodes);
+        });
+        return distances;
+    }
 
-        // Initialize distances matrix with maximum values
+    // Blocked Floyd-Warshall on a flat matrix
+    private int[] blockedFloydWarshall(ForkJoinPool pool) {
+        int numNodes = csr.nodeCount();
+        int[] distances = new int[numNodes * numNodes];
+
+        // Initialize distances matrix: 0 on the diagonal, the lightest edge between two nodes, "infinity" elsewhere
+        Arrays.fill(distances, INF);
         for (int i = 0; i < numNodes; i++) {
-            Arrays.fill(distances[i], Integer.MAX_VALUE);
-            distances[i][i] = 0; // Distance from a node to itself is always 0
+            distances[i * numNodes + i] = 0;
+            for (int e = csr.offsets[i]; e < csr.offsets[i + 1]; e++) {
+                int cell = i * numNodes + csr.targets[e];
+                distances[cell] = Math.min(distances[cell], csr.weights[e]);
+            }
+        }
+
+        int numBlocks = (numNodes + BLOCK - 1) / BLOCK;
+        for (int k = 0; k < numBlocks; k++) {
+            int kb = k;
+            // Phase 1: diagonal tile
+            updateTile(distances, numNodes, kb, kb, kb);
+            // Phase 2: row k and column k
+            forEach(pool, 2 * numBlocks, t -> {
+                int other = t >> 1;
+                if (other == kb) {
+                    return;
+                }
+                if ((t & 1) == 0) {
+                    updateTile(distances, numNodes, kb, other, kb);
+                } else {
+                    updateTile(distances, numNodes, other, kb, kb);
+                }
+            });
+            // Phase 3: every other tile
+            forEach(pool, numBlocks * numBlocks, t -> {
+                int i = t / numBlocks;
+                int j = t % numBlocks;
+                if (i != kb && j != kb) {
+                    updateTile(distances, numNodes, i, j, kb);
+                }
+            });
         }
 
-        // Set initial distances based on the dataset
-
-        /*
-        * Iterates through each entry (node) in the `adjacencyList`.
-        * For each node, iterate through its list of edges to adjacent nodes
-        * Sets the initial distance from the current node to its adjacent nodes based on the edge weight in the dataset.
-        * The `Math.abs()` function is used to ignore negative symbols in the edge weights
-        * */
-        for (Map.Entry<Integer, List<Edge>> entry : adjacencyList.entrySet()) {
-            int fromNodeId = entry.getKey();
-            for (Edge edge : entry.getValue()) {
-                int toNodeId = edge.toNodeId;
-                int weight = Math.abs(edge.weight); // Ignore negative symbols
-                distances[fromNodeId][toNodeId] = weight;
+        for (int cell = 0; cell < distances.length; cell++) {
+            if (distances[cell] >= INF) {
+                distances[cell] = Integer.MAX_VALUE;
             }
         }
+        return distances;
+    }
 
-        // Floyd-Warshall algorithm to update distances
-
-        /*
-        * Uses nested loops to iterate through each pair of nodes (`i` and `j`) and a middle node (`k`).
-        * Updates the distance between nodes `i` to `k` and from `k` to `j` is not infinity, it calculates the new distance as the minimum of the
-        * -current distance and the sum of distance from `i` to `k` and `k` to `j`.
-        * Returns the `distance` matrix: the resulting `distances` matrix contains the shortest paths between all pairs of nodes in the graph.
-        * */
-        for (int k = 0; k < numNodes; k++) {
-            for (int i = 0; i < numNodes; i++) {
-                for (int j = 0; j < numNodes; j++) {
-                    if (distances[i][k] != Integer.MAX_VALUE && distances[k][j] != Integer.MAX_VALUE) {
-                        distances[i][j] = Math.min(distances[i][j], distances[i][k] + distances[k][j]);
+    // Relaxes tile (rowBlock, colBlock) through the intermediate nodes of block k: d[i][j] = min(d[i][j], d[i][k] + d[k][j])
+    private static void updateTile(int[] d, int n, int rowBlock, int colBlock, int kBlock) {
+        int rowEnd = Math.min(n, (rowBlock + 1) * BLOCK);
+        int colStart = colBlock * BLOCK;
+        int colEnd = Math.min(n, colStart + BLOCK);
+        int kEnd = Math.min(n, (kBlock + 1) * BLOCK);
+        for (int k = kBlock * BLOCK; k < kEnd; k++) {
+            int kRow = k * n;
+            for (int i = rowBlock * BLOCK; i < rowEnd; i++) {
+                int iRow = i * n;
+                int ik = d[iRow + k];
+                if (ik >= INF) {
+                    continue;
+                }
+                for (int j = colStart; j < colEnd; j++) {
+                    int through = ik + d[kRow + j];
+                    if (through < d[iRow + j]) {
+                        d[iRow + j] = through;
                     }
                 }
             }
         }
+    }
 
-        return distances;
+    // Runs body(0 .. count - 1), on the pool when there is one
+    private static void forEach(ForkJoinPool pool, int count, IntConsumer body) {
+        if (pool == null) {
+            for (int i = 0; i < count; i++) {
+                body.accept(i);
+            }
+        } else {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(body)).join();
+        }
     }
 
     // Main method for testing
@@ -63,7 +194,7 @@ public class AllSourcesShortestPath extends GraphReader {
         // Create an instance of AllSourcesShortestPath
         AllSourcesShortestPath shortestPathFinder = new AllSourcesShortestPath(filePath);
 
-        // Find all shortest paths using Floyd-Warshall algorithm
+        // Find all shortest paths
         int[][] shortestPaths = shortestPathFinder.findAllShortestPaths();
 
         // Display the shortest paths matrix
@@ -74,9 +205,16 @@ public class AllSourcesShortestPath extends GraphReader {
             }
             System.out.println();
         }
+
+        // Both strategies must agree
+        int processors = Runtime.getRuntime().availableProcessors();
+        int[] dijkstra = shortestPathFinder.findAllShortestPathsFlat(Strategy.PARALLEL_DIJKSTRA, processors);
+        int[] floydWarshall = shortestPathFinder.findAllShortestPathsFlat(Strategy.BLOCKED_FLOYD_WARSHALL, processors);
+        System.out.println("Strategy for this graph: " + shortestPathFinder.chooseStrategy()
+                + ", Dijkstra and Floyd-Warshall agree: " + Arrays.equals(dijkstra, floydWarshall));
     }
     /*
-     * Time Complexity: O(V^3)
+     * Time Complexity: O(V^3 / P) blocked Floyd-Warshall, O(V * E * log V / P) repeated Dijkstra, P threads
      * Space Complexity: O(V^2)
      * */
 
@@ -0,0 +1,139 @@
+/*
+* **** A* WITH LANDMARKS (ALT) ****
+* Goal-directed point-to-point search: A* orders the nodes by distance(v) + h(v), where h(v) is the landmark lower bound on
+* d(v, target) (see LandmarkIndex). The bound is consistent (h(u) <= w(u, v) + h(v)), so, like Dijkstra, every node is
+* settled at most once and the search can stop as soon as the target is settled. Nodes the landmarks prove unable to reach
+* the target are never queued.
+*
+* Only the ACTIVE_LANDMARKS landmarks giving the best bound for (source, target) are used during a query, which keeps h cheap
+* while losing little of its strength. h is computed once per touched node and kept until the next query.
+* All state is allocated once and only touched nodes are reset; the workspace is not thread-safe.
+* */
+
+import java.util.Arrays;
+
+public class AltSearch {
+
+    // Landmarks used per query
+    static final int ACTIVE_LANDMARKS = 4;
+
+    private final CsrGraph graph;
+    private final LandmarkIndex index;
+    private final int[] distance;
+    // Lower bound to the target of every touched node, -1 if not computed yet
+    private final int[] potential;
+    private final IndexedMinHeap heap;
+    private final int[] touched;
+    private int touchedCount;
+    private int settledCount;
+    private final int[] active;
+    private final int[] activeBounds;
+    private int activeCount;
+
+    // Constructor that allocates the workspace for a graph and its landmark tables
+    public AltSearch(CsrGraph graph, LandmarkIndex index) {
+        if (!index.matches(graph)) {
+            throw new IllegalArgumentException("Landmarks were computed for a different graph");
+        }
+        this.graph = graph;
+        this.index = index;
+        int numNodes = graph.nodeCount();
+        distance = new int[numNodes];
+        potential = new int[numNodes];
+        heap = new IndexedMinHeap(numNodes);
+        touched = new int[numNodes];
+        active = new int[Math.min(ACTIVE_LANDMARKS, index.landmarkCount())];
+        activeBounds = new int[active.length];
+        Arrays.fill(distance, Integer.MAX_VALUE);
+        Arrays.fill(potential, -1);
+    }
+
+    // Method to find the shortest distance between two dense node indices (Integer.MAX_VALUE if unreachable)
+    public int distance(int source, int target) {
+        clear();
+        chooseActiveLandmarks(source, target);
+        if (potential(source, target) == Integer.MAX_VALUE) {
+            return source == target ? 0 : Integer.MAX_VALUE;
+        }
+        distance[source] = 0;
+        heap.insert(source, potential[source]);
+
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] weights = graph.weights;
+        while (!heap.isEmpty()) {
+            int currentNode = heap.pollMin();
+            settledCount++;
+            int currentDistance = distance[currentNode];
+            if (currentNode == target) {
+                return currentDistance;
+            }
+            for (int e = offsets[currentNode]; e < offsets[currentNode + 1]; e++) {
+                int adjacentNode = targets[e];
+                int newDistance = currentDistance + weights[e];
+                if (newDistance < distance[adjacentNode]) {
+                    int h = potential(adjacentNode, target);
+                    if (h == Integer.MAX_VALUE) {
+                        continue;
+                    }
+                    distance[adjacentNode] = newDistance;
+                    heap.insertOrDecrease(adjacentNode, newDistance + h);
+                }
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    // h(v), computed on first use
+    private int potential(int node, int target) {
+        if (potential[node] < 0) {
+            touched[touchedCount++] = node;
+            potential[node] = index.lowerBound(node, target, active, activeCount);
+        }
+        return potential[node];
+    }
+
+    // Picks the landmarks with the largest bounds on d(source, target), largest first
+    private void chooseActiveLandmarks(int source, int target) {
+        activeCount = 0;
+        for (int i = 0; i < index.landmarkCount(); i++) {
+            int bound = index.landmarkBound(i, source, target);
+            int position = activeCount;
+            if (position == active.length) {
+                if (bound <= activeBounds[position - 1]) {
+                    continue;
+                }
+                position--;
+            } else {
+                activeCount++;
+            }
+            while (position > 0 && activeBounds[position - 1] < bound) {
+                activeBounds[position] = activeBounds[position - 1];
+                active[position] = active[position - 1];
+                position--;
+            }
+            activeBounds[position] = bound;
+            active[position] = i;
+        }
+    }
+
+    // Number of nodes settled by the last query
+    public int settledCount() {
+        return settledCount;
+    }
+
+    // Method to forget the last query, O(nodes it touched)
+    private void clear() {
+        for (int i = 0; i < touchedCount; i++) {
+            distance[touched[i]] = Integer.MAX_VALUE;
+            potential[touched[i]] = -1;
+        }
+        touchedCount = 0;
+        settledCount = 0;
+        heap.clear();
+    }
+    /*
+     * Time Complexity: O((V + E) * (log V + ACTIVE_LANDMARKS)) worst case, usually a narrow corridor towards the target
+     * Space Complexity: O(V), allocated once
+     * */
+}
@@ -1,4 +1,4 @@
-import java.util.*;
+import java.util.Arrays;
 
 public class BFS extends GraphReader {
 
@@ -7,35 +7,60 @@ public class BFS extends GraphReader {
         super(filePath);
     }
 
+    // Constructor that accepts an already loaded graph
+    public BFS(CsrGraph graph) {
+        super(graph);
+    }
+
     // Method to perform Breadth-First Search (BFS) traversal of the graph
     public void bfsTraversal(int startNode) {
-        // Set to keep track of visited nodes
-        Set<Integer> visited = new HashSet<>();
+        int start = csr.indexOf(startNode);
+        if (start < 0) {
+            // The start node has no edges at all, it is the only node reached
+            System.out.print(startNode + " ");
+            return;
+        }
+
+        // Array to keep track of visited nodes (indexed by dense node index)
+        boolean[] visited = new boolean[csr.nodeCount()];
 
-        // Queue for BFS traversal
-        Queue<Integer> queue = new LinkedList<>();
+        // Array-backed queue for BFS traversal, every node is enqueued at most once
+        int[] queue = new int[csr.nodeCount()];
+        int head = 0;
+        int tail = 0;
 
         // Enqueue the start node
-        queue.offer(startNode);
-        visited.add(startNode);
+        queue[tail++] = start;
+        visited[start] = true;
 
         // Perform BFS traversal
-        while (!queue.isEmpty()) {
-            int currentNode = queue.poll();
-            System.out.print(currentNode + " ");
-
-            // Get adjacent nodes of the current node
-            List<Edge> adjacentEdges = getAdjacentEdges(currentNode);
-            for (Edge edge : adjacentEdges) {
-                int neighborNode = edge.toNodeId;
-                if (!visited.contains(neighborNode)) {
-                    queue.offer(neighborNode);
-                    visited.add(neighborNode);
+        while (head < tail) {
+            int currentNode = queue[head++];
+            System.out.print(csr.nodeIds[currentNode] + " ");
+
+            // Visit adjacent nodes of the current node
+            for (int e = csr.offsets[currentNode]; e < csr.offsets[currentNode + 1]; e++) {
+                int neighborNode = csr.targets[e];
+                if (!visited[neighborNode]) {
+                    queue[tail++] = neighborNode;
+                    visited[neighborNode] = true;
                 }
             }
         }
     }
 
+    // Method to run BFS from a city without printing: visiting order, levels and parents (direction-optimizing, see
+    // DirectionOptimizingBfs); a city without edges reaches nothing else and gets an empty result
+    public BfsResult search(int startNode) {
+        int start = csr.indexOf(startNode);
+        if (start < 0) {
+            int[] unreached = new int[csr.nodeCount()];
+            Arrays.fill(unreached, -1);
+            return new BfsResult(new int[0], unreached, unreached.clone());
+        }
+        return new DirectionOptimizingBfs(csr).run(start);
+    }
+
     public static void main(String[] args) {
         // Path to the dataset file
         String filePath = "/Users/revanth/Desktop/PSA/PSAFinalProject/src/reachability1.txt";
@@ -0,0 +1,118 @@
+/*
+* **** BIDIRECTIONAL DIJKSTRA ****
+* Point-to-point search that grows two Dijkstra balls at the same time:
+*       forward:  from the source over the out-edges of the graph,
+*       backward: from the destination over the out-edges of the reverse graph (the in-edges of the graph).
+* Whenever an edge relaxed by one side reaches a node the other side has already labelled, the two labels form an s-t path
+* and the best such length is kept as `best`.
+*
+* STOPPING RULE:
+*       Let topF and topB be the smallest keys of the two heaps. Any s-t path not found yet has to leave the forward ball and
+*       enter the backward ball, so it is at least topF + topB long. Once topF + topB >= best, `best` is the shortest distance.
+*       Each step expands the side with the smaller heap, which keeps the two balls balanced.
+*
+* All search state is primitive arrays allocated once, and only the nodes a query touched are reset afterwards,
+* so a query costs the part of the graph it explores instead of O(V). The workspace is not thread-safe.
+* */
+
+import java.util.Arrays;
+
+public class BidirectionalDijkstra {
+    private final CsrGraph forward;
+    private final CsrGraph backward;
+    private final int[] forwardDistance;
+    private final int[] backwardDistance;
+    private final IndexedMinHeap forwardHeap;
+    private final IndexedMinHeap backwardHeap;
+    private final int[] touched;
+    private int touchedCount;
+    private int settledCount;
+
+    // Constructor that allocates the workspace for a graph
+    public BidirectionalDijkstra(CsrGraph graph) {
+        this.forward = graph;
+        this.backward = graph.reverse();
+        int numNodes = graph.nodeCount();
+        forwardDistance = new int[numNodes];
+        backwardDistance = new int[numNodes];
+        forwardHeap = new IndexedMinHeap(numNodes);
+        backwardHeap = new IndexedMinHeap(numNodes);
+        touched = new int[numNodes];
+        Arrays.fill(forwardDistance, Integer.MAX_VALUE);
+        Arrays.fill(backwardDistance, Integer.MAX_VALUE);
+    }
+
+    // Method to find the shortest distance between two dense node indices (Integer.MAX_VALUE if unreachable)
+    public int distance(int source, int destination) {
+        clear();
+        if (source == destination) {
+            return 0;
+        }
+        label(forwardDistance, backwardDistance, source, 0);
+        forwardHeap.insert(source, 0);
+        label(backwardDistance, forwardDistance, destination, 0);
+        backwardHeap.insert(destination, 0);
+
+        long best = Long.MAX_VALUE;
+        while (!forwardHeap.isEmpty() && !backwardHeap.isEmpty()) {
+            if ((long) forwardHeap.minKey() + backwardHeap.minKey() >= best) {
+                break;
+            }
+            if (forwardHeap.size() <= backwardHeap.size()) {
+                best = Math.min(best, expand(forward, forwardHeap, forwardDistance, backwardDistance));
+            } else {
+                best = Math.min(best, expand(backward, backwardHeap, backwardDistance, forwardDistance));
+            }
+        }
+        return best == Long.MAX_VALUE ? Integer.MAX_VALUE : (int) best;
+    }
+
+    // Settles the top node of one side and relaxes its edges; returns the shortest s-t path seen through those edges
+    private long expand(CsrGraph graph, IndexedMinHeap heap, int[] distance, int[] otherDistance) {
+        int currentNode = heap.pollMin();
+        settledCount++;
+        int currentDistance = distance[currentNode];
+        long best = Long.MAX_VALUE;
+        for (int e = graph.offsets[currentNode]; e < graph.offsets[currentNode + 1]; e++) {
+            int adjacentNode = graph.targets[e];
+            int newDistance = currentDistance + graph.weights[e];
+            if (newDistance < distance[adjacentNode]) {
+                label(distance, otherDistance, adjacentNode, newDistance);
+                heap.insertOrDecrease(adjacentNode, newDistance);
+            }
+            if (otherDistance[adjacentNode] != Integer.MAX_VALUE) {
+                best = Math.min(best, (long) newDistance + otherDistance[adjacentNode]);
+            }
+        }
+        return best;
+    }
+
+    // Sets a distance label, remembering the node for the reset if neither side had touched it
+    private void label(int[] distance, int[] otherDistance, int node, int value) {
+        if (distance[node] == Integer.MAX_VALUE && otherDistance[node] == Integer.MAX_VALUE) {
+            touched[touchedCount++] = node;
+        }
+        distance[node] = value;
+    }
+
+    // Number of nodes settled by the last query (both sides together)
+    public int settledCount() {
+        return settledCount;
+    }
+
+    // Method to forget the last query, O(nodes it touched)
+    private void clear() {
+        for (int i = 0; i < touchedCount; i++) {
+            forwardDistance[touched[i]] = Integer.MAX_VALUE;
+            backwardDistance[touched[i]] = Integer.MAX_VALUE;
+        }
+        touchedCount = 0;
+        settledCount = 0;
+        forwardHeap.clear();
+        backwardHeap.clear();
+    }
+    /*
+     * Time Complexity: O((V + E) * log V) worst case, usually far fewer nodes than a one-directional search
+     * Space Complexity: O(V), allocated once
+     * */
+}
@@ -0,0 +1,579 @@
+/*
+* **** CONTRACTION HIERARCHIES ****
+* Speeds up point-to-point shortest distance queries with an offline preprocessing step.
+*
+* PREPROCESSING (node ordering and shortcuts):
+*       1. Nodes are contracted one by one, least important first. Contracting v removes it from the remaining graph; for every
+*          pair of remaining neighbors u -> v -> w whose path through v might be the only shortest u-w path, a shortcut edge
+*          u -> w with weight w(u, v) + w(v, w) is added.
+*       2. A bounded Dijkstra from u that avoids v (the witness search) checks whether another path u ~> w is at most as long;
+*          if so, no shortcut is needed. The search stops at the longest path through v or after WITNESS_SETTLE_LIMIT nodes,
+*          so it may miss a witness and add a shortcut that is not strictly necessary, but never misses a needed one.
+*          Priorities are only estimates, so their witness searches stop after PRIORITY_SETTLE_LIMIT nodes.
+*       3. Importance = edge difference (shortcuts added - edges removed) + number of already contracted neighbors.
+*          Priorities are updated lazily: the node with the smallest priority is re-evaluated before it is contracted, and put
+*          back if it is no longer the smallest.
+*       4. The position in the contraction order is the rank of the node. Every edge (original or shortcut) is kept in the
+*          upward graph of its lower ranked end: out-edges in `up`, in-edges (reversed) in `down`.
+*
+* QUERY (upward bidirectional search):
+*       Every shortest path has a version that first only goes up in rank and then only down. So a forward Dijkstra from the
+*       source over `up` and a backward Dijkstra from the destination over `down` meet at the highest node of that path.
+*       A side stops once its smallest key is not smaller than the best meeting distance found. Nodes reached more cheaply
+*       from a higher ranked node are stalled (stall-on-demand): they are settled but their edges are not relaxed.
+*
+* The hierarchy can be saved next to the graph and loaded again; the file stores the graph fingerprint so it is never used
+* with a different graph. A query workspace belongs to one instance and is not thread-safe.
+*
+* Usage: java ContractionHierarchy [graph file] [hierarchy file]
+* */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+public class ContractionHierarchy {
+
+    static final int MAGIC = 0x43525441; // "ATRC" read as a little-endian int
+    static final int VERSION = 1;
+    // Largest number of nodes a witness search settles when contracting a node, and when only estimating its priority
+    static final int WITNESS_SETTLE_LIMIT = 64;
+    static final int PRIORITY_SETTLE_LIMIT = 8;
+
+    final long graphFingerprint;
+    final int[] rank;
+    // Upward out-edges (to higher ranked nodes) and upward in-edges, reversed, as CSR graphs over the same dense indices
+    final CsrGraph up;
+    final CsrGraph down;
+    final int shortcutCount;
+
+    // Query workspace
+    private final int[] forwardDistance;
+    private final int[] backwardDistance;
+    private final IndexedMinHeap forwardHeap;
+    private final IndexedMinHeap backwardHeap;
+    private final int[] touched;
+    private int touchedCount;
+    private int settledCount;
+
+    ContractionHierarchy(long graphFingerprint, int[] rank, CsrGraph up, CsrGraph down, int shortcutCount) {
+        this.graphFingerprint = graphFingerprint;
+        this.rank = rank;
+        this.up = up;
+        this.down = down;
+        this.shortcutCount = shortcutCount;
+        int numNodes = rank.length;
+        forwardDistance = new int[numNodes];
+        backwardDistance = new int[numNodes];
+        forwardHeap = new IndexedMinHeap(numNodes);
+        backwardHeap = new IndexedMinHeap(numNodes);
+        touched = new int[numNodes];
+        Arrays.fill(forwardDistance, Integer.MAX_VALUE);
+        Arrays.fill(backwardDistance, Integer.MAX_VALUE);
+    }
+
+    // Method to build the hierarchy of a graph (the offline phase)
+    public static ContractionHierarchy build(CsrGraph graph) {
+        return new Contractor(graph).contractAll();
+    }
+
+    // Method to find the shortest distance between two dense node indices (Integer.MAX_VALUE if unreachable)
+    public int distance(int source, int destination) {
+        clear();
+        if (source == destination) {
+            return 0;
+        }
+        label(forwardDistance, backwardDistance, source, 0);
+        forwardHeap.insert(source, 0);
+        label(backwardDistance, forwardDistance, destination, 0);
+        backwardHeap.insert(destination, 0);
+
+        long best = Long.MAX_VALUE;
+        while (true) {
+            boolean forwardActive = !forwardHeap.isEmpty() && forwardHeap.minKey() < best;
+            boolean backwardActive = !backwardHeap.isEmpty() && backwardHeap.minKey() < best;
+            if (!forwardActive && !backwardActive) {
+                break;
+            }
+            if (forwardActive && (!backwardActive || forwardHeap.minKey() <= backwardHeap.minKey())) {
+                best = Math.min(best, settle(up, down, forwardHeap, forwardDistance, backwardDistance));
+            } else {
+                best = Math.min(best, settle(down, up, backwardHeap, backwardDistance, forwardDistance));
+            }
+        }
+        return best == Long.MAX_VALUE ? Integer.MAX_VALUE : (int) best;
+    }
+
+    /*
+    * Settles the top node of one side; returns the s-t distance through it if the other side has reached it.
+    * Stall-on-demand: if a higher ranked node already labelled by this side reaches the node with a shorter distance (an
+    * edge of `opposite`), the label is not a shortest distance and the node's edges are not relaxed.
+    * */
+    private long settle(CsrGraph graph, CsrGraph opposite, IndexedMinHeap heap, int[] distance, int[] otherDistance) {
+        int currentNode = heap.pollMin();
+        settledCount++;
+        int currentDistance = distance[currentNode];
+        long meeting = otherDistance[currentNode] == Integer.MAX_VALUE ? Long.MAX_VALUE : (long) currentDistance + otherDistance[currentNode];
+        for (int e = opposite.offsets[currentNode]; e < opposite.offsets[currentNode + 1]; e++) {
+            int higherNode = opposite.targets[e];
+            if (distance[higherNode] != Integer.MAX_VALUE && distance[higherNode] + opposite.weights[e] < currentDistance) {
+                return meeting;
+            }
+        }
+        for (int e = graph.offsets[currentNode]; e < graph.offsets[currentNode + 1]; e++) {
+            int adjacentNode = graph.targets[e];
+            int newDistance = currentDistance + graph.weights[e];
+            if (newDistance < distance[adjacentNode]) {
+                label(distance, otherDistance, adjacentNode, newDistance);
+                heap.insertOrDecrease(adjacentNode, newDistance);
+            }
+        }
+        return meeting;
+    }
+
+    private void label(int[] distance, int[] otherDistance, int node, int value) {
+        if (distance[node] == Integer.MAX_VALUE && otherDistance[node] == Integer.MAX_VALUE) {
+            touched[touchedCount++] = node;
+        }
+        distance[node] = value;
+    }
+
+    private void clear() {
+        for (int i = 0; i < touchedCount; i++) {
+            forwardDistance[touched[i]] = Integer.MAX_VALUE;
+            backwardDistance[touched[i]] = Integer.MAX_VALUE;
+        }
+        touchedCount = 0;
+        settledCount = 0;
+        forwardHeap.clear();
+        backwardHeap.clear();
+    }
+
+    // Number of nodes settled by the last query (both sides together)
+    public int settledCount() {
+        return settledCount;
+    }
+
+    // Number of shortcut edges added by the preprocessing
+    public int shortcutCount() {
+        return shortcutCount;
+    }
+
+    // Whether the hierarchy was built for this graph
+    public boolean matches(CsrGraph graph) {
+        return graph.nodeCount() == rank.length && graph.fingerprint() == graphFingerprint;
+    }
+
+    // Method to save the hierarchy (ranks and both upward graphs) with a trailing CRC32
+    public void save(String filePath) throws IOException {
+        CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(Paths.get(filePath))), new CRC32());
+        try (DataOutputStream out = new DataOutputStream(checked)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(graphFingerprint);
+            out.writeInt(rank.length);
+            out.writeInt(shortcutCount);
+            writeInts(out, rank);
+            writeGraph(out, up);
+            writeGraph(out, down);
+            out.writeLong(checked.getChecksum().getValue());
+        }
+    }
+
+    // Method to load a saved hierarchy, refusing files built for another graph
+    public static ContractionHierarchy load(String filePath, CsrGraph graph) throws IOException {
+        CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(Files.newInputStream(Paths.get(filePath))), new CRC32());
+        try (DataInputStream in = new DataInputStream(checked)) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a contraction hierarchy file: " + filePath);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported contraction hierarchy version " + version + ": " + filePath);
+            }
+            long fingerprint = in.readLong();
+            int numNodes = in.readInt();
+            if (fingerprint != graph.fingerprint() || numNodes != graph.nodeCount()) {
+                throw new IOException("Contraction hierarchy was built for a different graph: " + filePath);
+            }
+            int shortcuts = in.readInt();
+            int[] rank = readInts(in, numNodes);
+            CsrGraph up = readGraph(in, graph.nodeIds);
+            CsrGraph down = readGraph(in, graph.nodeIds);
+            long expected = checked.getChecksum().getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Contraction hierarchy checksum mismatch: " + filePath);
+            }
+            return new ContractionHierarchy(fingerprint, rank, up, down, shortcuts);
+        }
+    }
+
+    private static void writeGraph(DataOutputStream out, CsrGraph graph) throws IOException {
+        out.writeInt(graph.edgeCount());
+        writeInts(out, graph.offsets);
+        writeInts(out, graph.targets);
+        writeInts(out, graph.weights);
+    }
+
+    private static CsrGraph readGraph(DataInputStream in, int[] nodeIds) throws IOException {
+        int edgeCount = in.readInt();
+        if (edgeCount < 0) {
+            throw new IOException("Corrupt contraction hierarchy edge count: " + edgeCount);
+        }
+        int[] offsets = readInts(in, nodeIds.length + 1);
+        int[] targets = readInts(in, edgeCount);
+        int[] weights = readInts(in, edgeCount);
+        return new CsrGraph(nodeIds, offsets, targets, weights);
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static int[] readInts(DataInputStream in, int count) throws IOException {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    /*
+    * State of the preprocessing: the remaining graph as per-node growable adjacency arrays (out and in), the witness search
+    * workspace and the priority queue of the nodes not contracted yet.
+    * */
+    private static final class Contractor {
+        private final CsrGraph graph;
+        private final int numNodes;
+        private final int[][] outTarget;
+        private final int[][] outWeight;
+        private final int[] outSize;
+        private final int[][] inSource;
+        private final int[][] inWeight;
+        private final int[] inSize;
+        private final int[] contractedNeighbors;
+
+        // Witness search workspace
+        private final int[] witnessDistance;
+        private final IndexedMinHeap witnessHeap;
+        private final int[] witnessTouched;
+        private int witnessTouchedCount;
+        private final int[] targetStamp;
+        private final int[] directStamp;
+        private final int[] directWeight;
+        private int stamp;
+
+        // Shortcuts found by the last simulation / contraction: (from, to, weight) triples
+        private int[] shortcutBuffer = new int[48];
+        private int shortcutBufferSize;
+
+        Contractor(CsrGraph graph) {
+            this.graph = graph;
+            this.numNodes = graph.nodeCount();
+            outTarget = new int[numNodes][];
+            outWeight = new int[numNodes][];
+            outSize = new int[numNodes];
+            inSource = new int[numNodes][];
+            inWeight = new int[numNodes][];
+            inSize = new int[numNodes];
+            contractedNeighbors = new int[numNodes];
+            witnessDistance = new int[numNodes];
+            witnessHeap = new IndexedMinHeap(numNodes);
+            witnessTouched = new int[numNodes];
+            targetStamp = new int[numNodes];
+            directStamp = new int[numNodes];
+            directWeight = new int[numNodes];
+            Arrays.fill(witnessDistance, Integer.MAX_VALUE);
+
+            for (int u = 0; u < numNodes; u++) {
+                int capacity = Math.max(4, graph.outDegree(u));
+                outTarget[u] = new int[capacity];
+                outWeight[u] = new int[capacity];
+            }
+            CsrGraph reverse = graph.reverse();
+            for (int v = 0; v < numNodes; v++) {
+                int capacity = Math.max(4, reverse.outDegree(v));
+                inSource[v] = new int[capacity];
+                inWeight[v] = new int[capacity];
+            }
+            // Self-loops never lie on a shortest path, parallel edges keep the lightest weight
+            for (int u = 0; u < numNodes; u++) {
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    if (graph.targets[e] != u) {
+                        addOrImproveEdge(u, graph.targets[e], graph.weights[e]);
+                    }
+                }
+            }
+        }
+
+        ContractionHierarchy contractAll() {
+            // Initial priorities
+            IndexedMinHeap queue = new IndexedMinHeap(numNodes);
+            for (int v = 0; v < numNodes; v++) {
+                queue.insert(v, priority(v));
+            }
+
+            int[] rank = new int[numNodes];
+            EdgeList upEdges = new EdgeList();
+            EdgeList downEdges = new EdgeList();
+            int shortcuts = 0;
+            int nextRank = 0;
+            while (!queue.isEmpty()) {
+                int v = queue.pollMin();
+                // Lazy update: re-evaluate, put back if another node is now cheaper
+                int updated = priority(v);
+                if (!queue.isEmpty() && updated > queue.minKey()) {
+                    queue.insert(v, updated);
+                    continue;
+                }
+
+                // Contract v: its remaining edges all lead to higher ranked nodes
+                rank[v] = nextRank++;
+                for (int i = 0; i < outSize[v]; i++) {
+                    upEdges.add(v, outTarget[v][i], outWeight[v][i]);
+                }
+                for (int i = 0; i < inSize[v]; i++) {
+                    downEdges.add(v, inSource[v][i], inWeight[v][i]);
+                }
+                findShortcuts(v, WITNESS_SETTLE_LIMIT);
+                for (int i = 0; i < shortcutBufferSize; i += 3) {
+                    if (addOrImproveEdge(shortcutBuffer[i], shortcutBuffer[i + 1], shortcutBuffer[i + 2])) {
+                        shortcuts++;
+                    }
+                }
+                removeNode(v);
+            }
+
+            return new ContractionHierarchy(graph.fingerprint(), rank, toCsr(upEdges), toCsr(downEdges), shortcuts);
+        }
+
+        // Upward edges of every node as CSR over the dense indices of the graph (the edge lists already hold dense indices)
+        private CsrGraph toCsr(EdgeList edges) {
+            int[] offsets = new int[numNodes + 1];
+            for (int e = 0; e < edges.size; e++) {
+                offsets[edges.from[e] + 1]++;
+            }
+            for (int u = 0; u < numNodes; u++) {
+                offsets[u + 1] += offsets[u];
+            }
+            int[] cursor = Arrays.copyOf(offsets, numNodes);
+            int[] targets = new int[edges.size];
+            int[] weights = new int[edges.size];
+            for (int e = 0; e < edges.size; e++) {
+                int slot = cursor[edges.from[e]]++;
+                targets[slot] = edges.to[e];
+                weights[slot] = edges.weight[e];
+            }
+            return new CsrGraph(graph.nodeIds, offsets, targets, weights);
+        }
+
+        // Importance of contracting v now: edge difference plus contracted neighbors
+        private int priority(int v) {
+            findShortcuts(v, PRIORITY_SETTLE_LIMIT);
+            return shortcutBufferSize / 3 - outSize[v] - inSize[v] + contractedNeighbors[v];
+        }
+
+        // Fills shortcutBuffer with the shortcuts contracting v would need
+        private void findShortcuts(int v, int settleLimit) {
+            shortcutBufferSize = 0;
+            for (int i = 0; i < inSize[v]; i++) {
+                int u = inSource[v][i];
+                int toV = inWeight[v][i];
+                // Direct edges u -> w are the most common witnesses, only search for the targets they do not cover
+                stamp++;
+                for (int k = 0; k < outSize[u]; k++) {
+                    directStamp[outTarget[u][k]] = stamp;
+                    directWeight[outTarget[u][k]] = outWeight[u][k];
+                }
+                int pending = 0;
+                long maxThrough = 0;
+                for (int j = 0; j < outSize[v]; j++) {
+                    int w = outTarget[v][j];
+                    int through = toV + outWeight[v][j];
+                    if (w == u || (directStamp[w] == stamp && directWeight[w] <= through)) {
+                        continue;
+                    }
+                    targetStamp[w] = stamp;
+                    pending++;
+                    maxThrough = Math.max(maxThrough, through);
+                }
+                if (pending == 0) {
+                    continue;
+                }
+                witnessSearch(u, v, maxThrough, pending, settleLimit);
+                for (int j = 0; j < outSize[v]; j++) {
+                    int w = outTarget[v][j];
+                    if (targetStamp[w] == stamp && witnessDistance[w] > toV + outWeight[v][j]) {
+                        addShortcut(u, w, toV + outWeight[v][j]);
+                    }
+                }
+            }
+            clearWitness();
+        }
+
+        // Bounded Dijkstra from u over the remaining graph without v, stops once the marked targets are all settled
+        private void witnessSearch(int u, int v, long maxDistance, int targetCount, int settleLimit) {
+            clearWitness();
+            witnessDistance[u] = 0;
+            witnessTouched[witnessTouchedCount++] = u;
+            witnessHeap.insert(u, 0);
+            int settled = 0;
+            while (!witnessHeap.isEmpty() && witnessHeap.minKey() <= maxDistance && settled < settleLimit) {
+                int x = witnessHeap.pollMin();
+                settled++;
+                if (targetStamp[x] == stamp && --targetCount == 0) {
+                    break;
+                }
+                int dx = witnessDistance[x];
+                for (int i = 0; i < outSize[x]; i++) {
+                    int y = outTarget[x][i];
+                    if (y == v) {
+                        continue;
+                    }
+                    int dy = dx + outWeight[x][i];
+                    if (dy < witnessDistance[y]) {
+                        if (witnessDistance[y] == Integer.MAX_VALUE) {
+                            witnessTouched[witnessTouchedCount++] = y;
+                        }
+                        witnessDistance[y] = dy;
+                        witnessHeap.insertOrDecrease(y, dy);
+                    }
+                }
+            }
+        }
+
+        private void clearWitness() {
+            for (int i = 0; i < witnessTouchedCount; i++) {
+                witnessDistance[witnessTouched[i]] = Integer.MAX_VALUE;
+            }
+            witnessTouchedCount = 0;
+            witnessHeap.clear();
+        }
+
+        private void addShortcut(int from, int to, int weight) {
+            if (shortcutBufferSize + 3 > shortcutBuffer.length) {
+                shortcutBuffer = Arrays.copyOf(shortcutBuffer, shortcutBuffer.length * 2);
+            }
+            shortcutBuffer[shortcutBufferSize++] = from;
+            shortcutBuffer[shortcutBufferSize++] = to;
+            shortcutBuffer[shortcutBufferSize++] = weight;
+        }
+
+        // Takes a contracted node out of the remaining graph, its edges stay in its own lists for the upward graphs
+        private void removeNode(int v) {
+            for (int i = 0; i < outSize[v]; i++) {
+                int w = outTarget[v][i];
+                removeEntry(inSource[w], inWeight[w], inSize[w]--, v);
+                contractedNeighbors[w]++;
+            }
+            for (int i = 0; i < inSize[v]; i++) {
+                int u = inSource[v][i];
+                removeEntry(outTarget[u], outWeight[u], outSize[u]--, v);
+                contractedNeighbors[u]++;
+            }
+        }
+
+        // Swap-removes node from the first size entries of a per-node adjacency list
+        private static void removeEntry(int[] nodes, int[] weights, int size, int node) {
+            for (int i = 0; i < size; i++) {
+                if (nodes[i] == node) {
+                    nodes[i] = nodes[size - 1];
+                    weights[i] = weights[size - 1];
+                    return;
+                }
+            }
+        }
+
+        // Adds the edge u -> w, or lowers the weight of an existing one; returns true if a new edge was added
+        private boolean addOrImproveEdge(int u, int w, int weight) {
+            for (int i = 0; i < outSize[u]; i++) {
+                if (outTarget[u][i] == w) {
+                    if (weight < outWeight[u][i]) {
+                        outWeight[u][i] = weight;
+                        for (int j = 0; j < inSize[w]; j++) {
+                            if (inSource[w][j] == u) {
+                                inWeight[w][j] = weight;
+                                break;
+                            }
+                        }
+                    }
+                    return false;
+                }
+            }
+            if (outSize[u] == outTarget[u].length) {
+                outTarget[u] = Arrays.copyOf(outTarget[u], outSize[u] * 2);
+                outWeight[u] = Arrays.copyOf(outWeight[u], outSize[u] * 2);
+            }
+            outTarget[u][outSize[u]] = w;
+            outWeight[u][outSize[u]++] = weight;
+            if (inSize[w] == inSource[w].length) {
+                inSource[w] = Arrays.copyOf(inSource[w], inSize[w] * 2);
+                inWeight[w] = Arrays.copyOf(inWeight[w], inSize[w] * 2);
+            }
+            inSource[w][inSize[w]] = u;
+            inWeight[w][inSize[w]++] = weight;
+            return true;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Paths to the dataset and to the hierarchy file saved next to it
+        String filePath = args.length > 0 ? args[0] : "reachability.txt";
+        String hierarchyPath = args.length > 1 ? args[1] : filePath + ".ch";
+
+        CsrGraph graph = GraphReader.loadGraph(filePath);
+        long start = System.nanoTime();
+        ContractionHierarchy built = build(graph);
+        System.out.printf("Contracted %d nodes in %.1f ms, %d shortcuts%n", graph.nodeCount(), (System.nanoTime() - start) / 1e6, built.shortcutCount());
+        built.save(hierarchyPath);
+        ContractionHierarchy hierarchy = load(hierarchyPath, graph);
+
+        // Check against plain Dijkstra on random pairs and compare query times
+        int queries = 10000;
+        int numNodes = graph.nodeCount();
+        int[] sources = new int[queries];
+        int[] destinations = new int[queries];
+        Random random = new Random(11);
+        for (int i = 0; i < queries; i++) {
+            sources[i] = random.nextInt(numNodes);
+            destinations[i] = random.nextInt(numNodes);
+        }
+        DijkstraSearch dijkstra = new DijkstraSearch(graph);
+        int[] expected = new int[queries];
+        long dijkstraStart = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            expected[i] = dijkstra.runTo(sources[i], destinations[i]);
+        }
+        long dijkstraNanos = System.nanoTime() - dijkstraStart;
+
+        int mismatches = 0;
+        long settled = 0;
+        long hierarchyStart = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            if (hierarchy.distance(sources[i], destinations[i]) != expected[i]) {
+                mismatches++;
+            }
+            settled += hierarchy.settledCount();
+        }
+        long hierarchyNanos = System.nanoTime() - hierarchyStart;
+
+        System.out.printf("%d random queries: %d mismatches%n", queries, mismatches);
+        System.out.printf("Dijkstra: %.2f us/query, contraction hierarchy: %.2f us/query (%.1f nodes settled)%n",
+                dijkstraNanos / 1e3 / queries, hierarchyNanos / 1e3 / queries, (double) settled / queries);
+    }
+    /*
+     * Time Complexity: preprocessing O(V * d^2 * witness search), query O(upward search space * log V)
+     * Space Complexity: O(V + E + shortcuts)
+     * */
+}
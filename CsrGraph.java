@@ -0,0 +1,338 @@
+/*
+* **** COMPRESSED SPARSE ROW (CSR) GRAPH ****
+* The whole directed graph is stored in three flat arrays instead of a Map of Edge lists:
+*       offsets:  offsets[i] .. offsets[i + 1] is the slice of `targets`/`weights` holding the out-edges of node i.
+*       targets:  dense index of the destination node of each edge.
+*       weights:  weight of each edge (already made non-negative by the reader).
+*
+* DENSE ID REMAPPING:
+*       City IDs in the dataset can be sparse (e.g. 0, 17, 90000). Every ID that appears in the file is mapped to a dense
+*       index 0 .. V-1 in ascending ID order, so all algorithms can use plain int[] / boolean[] / double[] arrays indexed by
+*       node. `nodeIds[i]` converts an index back to the city ID and `indexOf(id)` converts a city ID to its index.
+*
+* The graph is immutable once built, so a single instance can be shared between algorithms (and threads).
+* */
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+public final class CsrGraph {
+
+    // Empty graph, used when the input could not be read
+    static final CsrGraph EMPTY = fromEdges(new EdgeList());
+
+    final int[] nodeIds;
+    final int[] offsets;
+    final int[] targets;
+    final int[] weights;
+
+    // Direct ID -> index table, only kept when the ID range is reasonably dense (otherwise binary search on nodeIds)
+    private final int[] idLookup;
+    private final int minId;
+
+    // Transposed graph (every edge reversed), built on first use
+    private volatile CsrGraph reverse;
+    // CRC32 of the arrays, computed on first use (0 = not computed yet)
+    private volatile long fingerprint;
+
+    CsrGraph(int[] nodeIds, int[] offsets, int[] targets, int[] weights) {
+        this.nodeIds = nodeIds;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+
+        int[] lookup = directLookup(nodeIds);
+        this.idLookup = lookup;
+        this.minId = lookup != null ? nodeIds[0] : 0;
+    }
+
+    // Builds the CSR arrays from an edge list using a two-pass count-then-fill (edge order inside a row is preserved)
+    static CsrGraph fromEdges(EdgeList edges) {
+        return fromEdgeLists(new EdgeList[]{edges}, null);
+    }
+
+    /*
+    * Builds the CSR arrays from edge lists that together form the file in order (parts[0] first).
+    * Every step runs per part on the pool (or sequentially when pool is null):
+    *       1. Collect the sorted distinct city IDs of each part and merge them into the dense ID table.
+    *       2. Count pass: the parts are grouped into one contiguous range per thread (a file may have hundreds of parts, but
+    *          the V-sized arrays are only needed per thread), and each group counts the out-degree of every node in its parts.
+    *       3. Prefix sums give every group its own write cursor inside every row, placed after the rows' edges of earlier groups.
+    *       4. Fill pass: each group writes the edges of its parts, in order, through its cursors.
+    * Because group g covers parts that come after those of groups 0..g-1 and writes after them, the result is identical to
+    * reading the concatenated edges sequentially, no matter how the file was split or how many threads ran.
+    * */
+    static CsrGraph fromEdgeLists(EdgeList[] parts, ForkJoinPool pool) {
+        int numParts = parts.length;
+
+        // Step 1: dense ID table
+        int[][] partIds = new int[numParts][];
+        forEachPart(pool, numParts, p -> partIds[p] = distinctIds(parts[p]));
+        int[] nodeIds = partIds[0];
+        for (int p = 1; p < numParts; p++) {
+            nodeIds = mergeDistinct(nodeIds, partIds[p]);
+        }
+        int[] ids = nodeIds;
+        int n = ids.length;
+        int[] lookup = directLookup(ids);
+
+        // Step 2: count pass, group g covers parts groupStart[g] .. groupStart[g + 1] - 1
+        int numGroups = pool == null ? 1 : Math.max(1, Math.min(numParts, pool.getParallelism()));
+        int[] groupStart = new int[numGroups + 1];
+        for (int g = 0; g <= numGroups; g++) {
+            groupStart[g] = (int) ((long) numParts * g / numGroups);
+        }
+        int[][] groupCounts = new int[numGroups][];
+        forEachPart(pool, numGroups, g -> {
+            int[] counts = new int[n];
+            for (int p = groupStart[g]; p < groupStart[g + 1]; p++) {
+                EdgeList part = parts[p];
+                for (int e = 0; e < part.size; e++) {
+                    counts[denseIndex(ids, lookup, part.from[e])]++;
+                }
+            }
+            groupCounts[g] = counts;
+        });
+
+        // Step 3: offsets and per-group cursors (the counts arrays are turned into cursors in place)
+        int[] offsets = new int[n + 1];
+        long edgeCount = 0;
+        for (int u = 0; u < n; u++) {
+            offsets[u] = (int) edgeCount;
+            for (int g = 0; g < numGroups; g++) {
+                int count = groupCounts[g][u];
+                groupCounts[g][u] = (int) edgeCount;
+                edgeCount += count;
+            }
+        }
+        if (edgeCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many edges for a CSR graph: " + edgeCount);
+        }
+        offsets[n] = (int) edgeCount;
+
+        // Step 4: fill pass
+        int[] targets = new int[(int) edgeCount];
+        int[] weights = new int[(int) edgeCount];
+        forEachPart(pool, numGroups, g -> {
+            int[] cursor = groupCounts[g];
+            for (int p = groupStart[g]; p < groupStart[g + 1]; p++) {
+                EdgeList part = parts[p];
+                for (int e = 0; e < part.size; e++) {
+                    int slot = cursor[denseIndex(ids, lookup, part.from[e])]++;
+                    targets[slot] = denseIndex(ids, lookup, part.to[e]);
+                    weights[slot] = part.weight[e];
+                }
+            }
+        });
+
+        return new CsrGraph(ids, offsets, targets, weights);
+    }
+
+    // Direct ID -> index table when the ID range is reasonably dense, otherwise null (binary search is used instead)
+    private static int[] directLookup(int[] nodeIds) {
+        int n = nodeIds.length;
+        if (n == 0 || (long) nodeIds[n - 1] - nodeIds[0] >= 4L * n + 1024) {
+            return null;
+        }
+        int[] lookup = new int[nodeIds[n - 1] - nodeIds[0] + 1];
+        Arrays.fill(lookup, -1);
+        for (int i = 0; i < n; i++) {
+            lookup[nodeIds[i] - nodeIds[0]] = i;
+        }
+        return lookup;
+    }
+
+    // Dense index of an ID that is known to be in nodeIds
+    private static int denseIndex(int[] nodeIds, int[] lookup, int nodeId) {
+        return lookup != null ? lookup[nodeId - nodeIds[0]] : Arrays.binarySearch(nodeIds, nodeId);
+    }
+
+    // Runs body(0 .. count - 1), on the pool when there is one
+    private static void forEachPart(ForkJoinPool pool, int count, IntConsumer body) {
+        if (pool == null || count == 1) {
+            for (int p = 0; p < count; p++) {
+                body.accept(p);
+            }
+        } else {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(body)).join();
+        }
+    }
+
+    // Sorted distinct city IDs (sources and destinations) of an edge list
+    private static int[] distinctIds(EdgeList edges) {
+        int m = edges.size;
+        int[] ids = new int[2 * m];
+        System.arraycopy(edges.from, 0, ids, 0, m);
+        System.arraycopy(edges.to, 0, ids, m, m);
+        Arrays.sort(ids);
+        int n = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (n == 0 || ids[i] != ids[n - 1]) {
+                ids[n++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(ids, n);
+    }
+
+    // Union of two sorted distinct arrays
+    private static int[] mergeDistinct(int[] a, int[] b) {
+        int[] merged = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length || j < b.length) {
+            int next;
+            if (j == b.length || (i < a.length && a[i] <= b[j])) {
+                next = a[i++];
+            } else {
+                next = b[j++];
+            }
+            if (n == 0 || merged[n - 1] != next) {
+                merged[n++] = next;
+            }
+        }
+        return Arrays.copyOf(merged, n);
+    }
+
+    // Number of nodes (cities)
+    public int nodeCount() {
+        return nodeIds.length;
+    }
+
+    // Number of directed edges
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    // Dense index of a city ID, or -1 if the city does not appear in the graph
+    public int indexOf(int nodeId) {
+        if (idLookup != null) {
+            long slot = (long) nodeId - minId;
+            return slot < 0 || slot >= idLookup.length ? -1 : idLookup[(int) slot];
+        }
+        int index = Arrays.binarySearch(nodeIds, nodeId);
+        return index < 0 ? -1 : index;
+    }
+
+    // City ID of a dense index
+    public int nodeId(int index) {
+        return nodeIds[index];
+    }
+
+    /*
+    * Graph with every edge reversed (same dense indices and node IDs): the out-edges of node v in the reverse graph are the
+    * in-edges of v here. Needed by searches that run backwards from a target. Built once and cached.
+    * */
+    public CsrGraph reverse() {
+        CsrGraph result = reverse;
+        if (result == null) {
+            synchronized (this) {
+                result = reverse;
+                if (result == null) {
+                    result = transpose();
+                    result.reverse = this;
+                    reverse = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Count-then-fill over the in-degrees, edges of a reversed row keep the order of their sources
+    private CsrGraph transpose() {
+        int n = nodeCount();
+        int[] reverseOffsets = new int[n + 1];
+        for (int e = 0; e < targets.length; e++) {
+            reverseOffsets[targets[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            reverseOffsets[v + 1] += reverseOffsets[v];
+        }
+        int[] cursor = Arrays.copyOf(reverseOffsets, n);
+        int[] reverseTargets = new int[targets.length];
+        int[] reverseWeights = new int[targets.length];
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int slot = cursor[targets[e]]++;
+                reverseTargets[slot] = u;
+                reverseWeights[slot] = weights[e];
+            }
+        }
+        return new CsrGraph(nodeIds, reverseOffsets, reverseTargets, reverseWeights);
+    }
+
+    /*
+    * Checksum of the node IDs, offsets, targets and weights. Indexes that are derived from a graph and saved to disk
+    * (contraction hierarchies, landmarks, ...) store it, so they can refuse to load against a different graph.
+    * */
+    public long fingerprint() {
+        long result = fingerprint;
+        if (result == 0) {
+            CRC32 crc = new CRC32();
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            for (int[] array : new int[][]{nodeIds, offsets, targets, weights}) {
+                for (int value : array) {
+                    if (buffer.remaining() < 4) {
+                        buffer.flip();
+                        crc.update(buffer);
+                        buffer.clear();
+                    }
+                    buffer.putInt(value);
+                }
+            }
+            buffer.flip();
+            crc.update(buffer);
+            // Keep 0 free as the "not computed" marker
+            result = crc.getValue() | (1L << 32);
+            fingerprint = result;
+        }
+        return result;
+    }
+
+    // Number of outgoing edges of a dense index
+    public int outDegree(int index) {
+        return offsets[index + 1] - offsets[index];
+    }
+    /*
+     * Space Complexity: O(V + E) --> (V + 1) offsets, E targets and E weights, no per-edge objects
+     * */
+}
+
+// Growable list of edges kept in three parallel int arrays (used while reading, before the CSR is built)
+class EdgeList {
+    int size;
+    int[] from;
+    int[] to;
+    int[] weight;
+
+    // Constructor for an empty EdgeList
+    public EdgeList() {
+        this(16);
+    }
+
+    // Constructor with an initial capacity
+    public EdgeList(int capacity) {
+        capacity = Math.max(capacity, 1);
+        this.from = new int[capacity];
+        this.to = new int[capacity];
+        this.weight = new int[capacity];
+    }
+
+    // Method to append an edge
+    public void add(int fromNodeId, int toNodeId, int edgeWeight) {
+        if (size == from.length) {
+            int capacity = from.length * 2;
+            from = Arrays.copyOf(from, capacity);
+            to = Arrays.copyOf(to, capacity);
+            weight = Arrays.copyOf(weight, capacity);
+        }
+        from[size] = fromNodeId;
+        to[size] = toNodeId;
+        weight[size] = edgeWeight;
+        size++;
+    }
+}
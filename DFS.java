@@ -1,5 +1,3 @@
-import java.util.*;
-
 public class DFS extends GraphReader {
 
     // Constructor that accepts a file path
@@ -7,29 +5,25 @@ public class DFS extends GraphReader {
         super(filePath);
     }
 
+    // Constructor that accepts an already loaded graph
+    public DFS(CsrGraph graph) {
+        super(graph);
+    }
+
     // Method to perform Depth-First Search (DFS) traversal of the graph
     public void dfsTraversal(int startNode) {
-        // Set to keep track of visited nodes
-        Set<Integer> visited = new HashSet<>();
-
-        // Perform DFS traversal recursively
-        dfsRecursive(startNode, visited);
-    }
+        int start = csr.indexOf(startNode);
+        if (start < 0) {
+            // The start node has no edges at all, it is the only node reached
+            System.out.print(startNode + " ");
+            return;
+        }
 
-    // Recursive helper method for DFS traversal
-    private void dfsRecursive(int currentNode, Set<Integer> visited) {
-        // Mark the current node as visited
-        visited.add(currentNode);
-        System.out.print(currentNode + " ");
-
-        // Get adjacent nodes of the current node
-        List<Edge> adjacentEdges = getAdjacentEdges(currentNode);
-        for (Edge edge : adjacentEdges) {
-            int neighborNode = edge.toNodeId;
-            if (!visited.contains(neighborNode)) {
-                // Recursively visit unvisited neighbor nodes
-                dfsRecursive(neighborNode, visited);
-            }
+        // Iterative DFS (explicit stack, same order as the recursive traversal), then print the nodes in the order they were entered
+        DepthFirstSearch search = new DepthFirstSearch(csr);
+        search.run(start);
+        for (int i = 0; i < search.preorderCount; i++) {
+            System.out.print(csr.nodeIds[search.preorder[i]] + " ");
         }
     }
 
@@ -0,0 +1,99 @@
+/*
+* **** ITERATIVE DEPTH-FIRST SEARCH ****
+* DFS with an explicit stack instead of recursion, so its depth is only limited by the number of nodes (a recursive DFS throws
+* StackOverflowError on long chains). Every stack entry is a node plus the position of the next edge to look at, which gives
+* exactly the visiting order of the recursive version: a node is entered the first time an edge reaches it, and left after
+* its last edge.
+*
+* The engine is a reusable workspace: all arrays are allocated once, and visited marks use a stamp (a node is visited when
+* mark[node] == stamp), so a new search does not clear anything. Within one search, visit() can be called for several roots
+* to build a DFS forest; preorder and postorder then hold the whole forest.
+* Nodes are dense indices.
+* */
+
+import java.util.Arrays;
+
+public class DepthFirstSearch {
+
+    private final CsrGraph graph;
+    private final int[] mark;
+    private int stamp;
+    private final int[] stackNode;
+    private final int[] stackEdge;
+
+    // Nodes in the order they were entered / left, since the last start()
+    final int[] preorder;
+    int preorderCount;
+    final int[] postorder;
+    int postorderCount;
+
+    // Constructor for a search over a graph
+    public DepthFirstSearch(CsrGraph graph) {
+        this.graph = graph;
+        int numNodes = graph.nodeCount();
+        mark = new int[numNodes];
+        stackNode = new int[numNodes];
+        stackEdge = new int[numNodes];
+        preorder = new int[numNodes];
+        postorder = new int[numNodes];
+    }
+
+    // Method to start a new search: no node is visited, the orders are empty
+    public void start() {
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(mark, 0);
+            stamp = 1;
+        }
+        preorderCount = 0;
+        postorderCount = 0;
+    }
+
+    // Method to run a new search from one node, returns the number of nodes reached
+    public int run(int source) {
+        start();
+        return visit(source);
+    }
+
+    public boolean isVisited(int node) {
+        return mark[node] == stamp;
+    }
+
+    // Method to visit everything reachable from root that is not visited yet in this search, returns the number of new nodes
+    public int visit(int root) {
+        if (mark[root] == stamp) {
+            return 0;
+        }
+        int before = preorderCount;
+        int top = 0;
+        mark[root] = stamp;
+        preorder[preorderCount++] = root;
+        stackNode[0] = root;
+        stackEdge[0] = graph.offsets[root];
+        while (top >= 0) {
+            int node = stackNode[top];
+            int e = stackEdge[top];
+            int end = graph.offsets[node + 1];
+            while (e < end && mark[graph.targets[e]] == stamp) {
+                e++;
+            }
+            if (e < end) {
+                // Enter the next unvisited neighbor; resume after its edge when it is done
+                int next = graph.targets[e];
+                stackEdge[top] = e + 1;
+                mark[next] = stamp;
+                preorder[preorderCount++] = next;
+                top++;
+                stackNode[top] = next;
+                stackEdge[top] = graph.offsets[next];
+            } else {
+                postorder[postorderCount++] = node;
+                top--;
+            }
+        }
+        return preorderCount - before;
+    }
+    /*
+     * Time Complexity: O(V + E) per search
+     * Space Complexity: O(V), allocated once
+     * */
+}
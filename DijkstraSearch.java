@@ -0,0 +1,170 @@
+/*
+* **** REUSABLE SINGLE-SOURCE DIJKSTRA ****
+* One search workspace per thread: the distance array, the indexed heap and the list of touched nodes are allocated once
+* and reused for every search, so a search only costs the nodes it reaches (no O(V) reset between searches).
+*
+* Distances are Integer.MAX_VALUE for nodes the last search did not reach, like ShortestPath.findShortestDistance.
+* The workspace is not thread-safe, every thread needs its own.
+* */
+
+import java.util.Arrays;
+
+public class DijkstraSearch {
+    final CsrGraph graph;
+    final int[] distance;
+    // Predecessor of every node reached by the last search on its shortest path tree (-1 for the source)
+    final int[] parent;
+    private final IndexedMinHeap heap;
+    private final int[] touched;
+    private int touchedCount;
+    private int settledCount;
+    // Marks of the targets of runToAll (allocated on first use), a target is marked when it holds the current stamp
+    private int[] targetStamp;
+    private int stamp;
+
+    // Constructor that allocates the workspace for a graph
+    public DijkstraSearch(CsrGraph graph) {
+        this.graph = graph;
+        int numNodes = graph.nodeCount();
+        this.distance = new int[numNodes];
+        this.parent = new int[numNodes];
+        this.heap = new IndexedMinHeap(numNodes);
+        this.touched = new int[numNodes];
+        Arrays.fill(distance, Integer.MAX_VALUE);
+    }
+
+    // Method to compute the distances from a source (dense index) to every node
+    public void run(int source) {
+        runTo(source, -1);
+    }
+
+    // Method to search from a source until target is settled (target -1 searches everything); returns the distance to target
+    public int runTo(int source, int target) {
+        clear();
+        distance[source] = 0;
+        parent[source] = -1;
+        touched[touchedCount++] = source;
+        heap.insert(source, 0);
+
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] weights = graph.weights;
+        while (!heap.isEmpty()) {
+            int currentNode = heap.pollMin();
+            settledCount++;
+            if (currentNode == target) {
+                heap.clear();
+                return distance[currentNode];
+            }
+            int currentDistance = distance[currentNode];
+            for (int e = offsets[currentNode]; e < offsets[currentNode + 1]; e++) {
+                int adjacentNode = targets[e];
+                int newDistance = currentDistance + weights[e];
+                if (newDistance < distance[adjacentNode]) {
+                    if (distance[adjacentNode] == Integer.MAX_VALUE) {
+                        touched[touchedCount++] = adjacentNode;
+                    }
+                    distance[adjacentNode] = newDistance;
+                    parent[adjacentNode] = currentNode;
+                    heap.insertOrDecrease(adjacentNode, newDistance);
+                }
+            }
+        }
+        return target < 0 ? 0 : distance[target];
+    }
+
+    // Method to search from a source until every node in targets is settled (or everything reachable is)
+    public void runToAll(int source, int[] targets) {
+        if (targetStamp == null) {
+            targetStamp = new int[distance.length];
+        }
+        stamp++;
+        int remaining = 0;
+        for (int target : targets) {
+            if (targetStamp[target] != stamp) {
+                targetStamp[target] = stamp;
+                remaining++;
+            }
+        }
+
+        clear();
+        distance[source] = 0;
+        parent[source] = -1;
+        touched[touchedCount++] = source;
+        heap.insert(source, 0);
+        int[] offsets = graph.offsets;
+        int[] targetNodes = graph.targets;
+        int[] weights = graph.weights;
+        while (!heap.isEmpty() && remaining > 0) {
+            int currentNode = heap.pollMin();
+            settledCount++;
+            if (targetStamp[currentNode] == stamp && --remaining == 0) {
+                break;
+            }
+            int currentDistance = distance[currentNode];
+            for (int e = offsets[currentNode]; e < offsets[currentNode + 1]; e++) {
+                int adjacentNode = targetNodes[e];
+                int newDistance = currentDistance + weights[e];
+                if (newDistance < distance[adjacentNode]) {
+                    if (distance[adjacentNode] == Integer.MAX_VALUE) {
+                        touched[touchedCount++] = adjacentNode;
+                    }
+                    distance[adjacentNode] = newDistance;
+                    parent[adjacentNode] = currentNode;
+                    heap.insertOrDecrease(adjacentNode, newDistance);
+                }
+            }
+        }
+        heap.clear();
+    }
+
+    // Distance of a node from the source of the last search (Integer.MAX_VALUE if not reached)
+    public int distance(int node) {
+        return distance[node];
+    }
+
+    // Predecessor of a node on the shortest path tree of the last search (-1 for the source, undefined if not reached)
+    public int parent(int node) {
+        return parent[node];
+    }
+
+    // Method to list the nodes of the shortest path from the last source to target (dense indices), empty if not reached
+    public int[] pathTo(int target) {
+        if (distance[target] == Integer.MAX_VALUE) {
+            return new int[0];
+        }
+        int length = 0;
+        for (int node = target; node >= 0; node = parent[node]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int node = target; node >= 0; node = parent[node]) {
+            path[--length] = node;
+        }
+        return path;
+    }
+
+    // Number of nodes settled by the last search
+    public int settledCount() {
+        return settledCount;
+    }
+
+    // Copies the distances of the last search into row[offset .. offset + V)
+    void copyDistances(int[] row, int offset) {
+        System.arraycopy(distance, 0, row, offset, distance.length);
+    }
+
+    // Method to forget the last search, O(nodes it touched)
+    public void clear() {
+        for (int i = 0; i < touchedCount; i++) {
+            distance[touched[i]] = Integer.MAX_VALUE;
+        }
+        touchedCount = 0;
+        settledCount = 0;
+        heap.clear();
+    }
+    /*
+     * Time Complexity: O((V + E) * log V) per search, O(touched nodes) to reset
+     * Space Complexity: O(V), allocated once
+     * */
+}
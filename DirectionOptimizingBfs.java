@@ -0,0 +1,317 @@
+/*
+* **** DIRECTION-OPTIMIZING BFS ****
+* Breadth-first search that returns its result (visiting order, levels, parents) instead of printing it, and picks per level
+* between two ways of finding the next frontier:
+*
+* TOP-DOWN (small frontiers):
+*       Every frontier node scans its out-edges and claims the unvisited targets. Costs the out-degrees of the frontier.
+*
+* BOTTOM-UP (large frontiers):
+*       Every unvisited node scans its in-edges (reverse adjacency) and stops at the first one coming from the frontier, which
+*       becomes its parent. Costs at most the in-degrees of the unvisited nodes, and usually far less: on a dense graph like
+*       reachability.txt (average degree ~158) almost every node finds a frontier parent among its first in-edges, while
+*       top-down would look at all ~158 out-edges of every frontier node only to find them visited.
+*
+* SWITCHING (Beamer, Asanovic and Patterson):
+*       Go bottom-up when the frontier's out-edges exceed the in-edges still unexplored / ALPHA; go back top-down when the
+*       frontier is shrinking and holds fewer than V / BETA nodes. Visited nodes and the bottom-up frontier are bitsets
+*       (one long per 64 nodes), so the bottom-up step skips visited nodes 64 at a time.
+*
+* The levels are those of any BFS. The parents are valid BFS parents (one level up, with an edge to the node) but may differ
+* from the queue-order parents, and within a level the order is by discovery, which for bottom-up steps is index order.
+* A level limit stops the search after maxLevel levels (nodes within maxLevel hops, see HopBoundedReachability).
+* One engine is a reusable workspace for one thread; sources are dense node indices.
+* */
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/*
+* Result of a BFS: the reached nodes in visiting order, level by level, and the level (-1 if unreached) and BFS-tree parent
+* (-1 for sources and unreached nodes) of every node.
+* */
+class BfsResult {
+    final int[] order;
+    final int[] level;
+    final int[] parent;
+
+    BfsResult(int[] order, int[] level, int[] parent) {
+        this.order = order;
+        this.level = level;
+        this.parent = parent;
+    }
+
+    int reachedCount() {
+        return order.length;
+    }
+
+    boolean isReached(int node) {
+        return level[node] >= 0;
+    }
+}
+
+public class DirectionOptimizingBfs {
+
+    // Bottom-up when frontier out-edges > unexplored in-edges / ALPHA, back to top-down below V / BETA frontier nodes
+    static final int ALPHA = 14;
+    static final int BETA = 24;
+
+    private final CsrGraph graph;
+    private final CsrGraph reverse;
+    private final long[] visited;
+    private final long[] frontier;
+    private final int[] order;
+    private long edgesExamined;
+
+    // Constructor for an engine over a graph (builds the graph's reverse adjacency if it does not exist yet)
+    public DirectionOptimizingBfs(CsrGraph graph) {
+        this.graph = graph;
+        this.reverse = graph.reverse();
+        int words = (graph.nodeCount() + 63) >>> 6;
+        visited = new long[words];
+        frontier = new long[words];
+        order = new int[graph.nodeCount()];
+    }
+
+    // Method to run BFS from one node
+    public BfsResult run(int source) {
+        return run(new int[]{source});
+    }
+
+    // Method to run BFS from several nodes at once: level 0 holds every source, each node gets the level of its nearest source
+    public BfsResult run(int[] sources) {
+        return run(sources, Integer.MAX_VALUE);
+    }
+
+    // Method to run BFS from one node that stops after maxLevel levels (nodes more than maxLevel edges away stay unreached)
+    public BfsResult run(int source, int maxLevel) {
+        return run(new int[]{source}, maxLevel);
+    }
+
+    // Method to run a multi-source BFS that stops after maxLevel levels
+    public BfsResult run(int[] sources, int maxLevel) {
+        int numNodes = graph.nodeCount();
+        int[] level = new int[numNodes];
+        int[] parent = new int[numNodes];
+        Arrays.fill(level, -1);
+        Arrays.fill(parent, -1);
+        Arrays.fill(visited, 0);
+        edgesExamined = 0;
+
+        int tail = 0;
+        long frontierEdges = 0;
+        long unexploredEdges = graph.edgeCount();
+        for (int source : sources) {
+            if (level[source] < 0) {
+                level[source] = 0;
+                visited[source >>> 6] |= 1L << source;
+                order[tail++] = source;
+                frontierEdges += graph.outDegree(source);
+                unexploredEdges -= reverse.outDegree(source);
+            }
+        }
+
+        int levelStart = 0;
+        int previousFrontierSize = 0;
+        boolean bottomUp = false;
+        int depth = 0;
+        while (levelStart < tail && depth < maxLevel) {
+            int levelEnd = tail;
+            int frontierSize = levelEnd - levelStart;
+            if (!bottomUp && frontierEdges > unexploredEdges / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && frontierSize < previousFrontierSize && frontierSize < numNodes / BETA) {
+                bottomUp = false;
+            }
+            previousFrontierSize = frontierSize;
+            depth++;
+
+            if (bottomUp) {
+                for (int i = levelStart; i < levelEnd; i++) {
+                    frontier[order[i] >>> 6] |= 1L << order[i];
+                }
+                for (int word = 0; word < visited.length; word++) {
+                    long unvisited = ~visited[word];
+                    while (unvisited != 0) {
+                        int v = (word << 6) + Long.numberOfTrailingZeros(unvisited);
+                        unvisited &= unvisited - 1;
+                        if (v >= numNodes) {
+                            break;
+                        }
+                        // First in-edge from the frontier, if any
+                        int e = reverse.offsets[v];
+                        int end = reverse.offsets[v + 1];
+                        while (e < end && (frontier[reverse.targets[e] >>> 6] & (1L << reverse.targets[e])) == 0) {
+                            e++;
+                        }
+                        edgesExamined += Math.min(e + 1, end) - reverse.offsets[v];
+                        if (e < end) {
+                            visited[word] |= 1L << v;
+                            level[v] = depth;
+                            parent[v] = reverse.targets[e];
+                            order[tail++] = v;
+                        }
+                    }
+                }
+                for (int i = levelStart; i < levelEnd; i++) {
+                    frontier[order[i] >>> 6] = 0; // Whole words: every bit set in them belongs to this frontier
+                }
+            } else {
+                for (int i = levelStart; i < levelEnd; i++) {
+                    int u = order[i];
+                    edgesExamined += graph.outDegree(u);
+                    for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                        int v = graph.targets[e];
+                        if ((visited[v >>> 6] & (1L << v)) == 0) {
+                            visited[v >>> 6] |= 1L << v;
+                            level[v] = depth;
+                            parent[v] = u;
+                            order[tail++] = v;
+                        }
+                    }
+                }
+            }
+
+            // Statistics of the new frontier for the next decision
+            frontierEdges = 0;
+            for (int i = levelEnd; i < tail; i++) {
+                frontierEdges += graph.outDegree(order[i]);
+                unexploredEdges -= reverse.outDegree(order[i]);
+            }
+            levelStart = levelEnd;
+        }
+        return new BfsResult(Arrays.copyOf(order, tail), level, parent);
+    }
+
+    // Edges looked at by the last run (out-edges in top-down steps, in-edges in bottom-up steps)
+    public long edgesExamined() {
+        return edgesExamined;
+    }
+
+    // Plain top-down BFS levels, the baseline
+    static int[] topDownLevels(CsrGraph graph, int source, int[] queue) {
+        int[] level = new int[graph.nodeCount()];
+        Arrays.fill(level, -1);
+        int head = 0;
+        int tail = 0;
+        level[source] = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int u = queue[head++];
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                int v = graph.targets[e];
+                if (level[v] < 0) {
+                    level[v] = level[u] + 1;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return level;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Path to the dataset and number of BFS sources in the sweep
+        String filePath = args.length > 0 ? args[0] : "reachability.txt";
+        CsrGraph graph = GraphReader.loadGraph(filePath);
+        int numNodes = graph.nodeCount();
+        int numSources = args.length > 1 ? Integer.parseInt(args[1]) : numNodes;
+        int[] sources = new int[numSources];
+        Random random = new Random(20);
+        for (int i = 0; i < numSources; i++) {
+            sources[i] = numSources == numNodes ? i : random.nextInt(numNodes);
+        }
+
+        // Warm-up, then the sweep with both engines
+        DirectionOptimizingBfs engine = new DirectionOptimizingBfs(graph);
+        int[] queue = new int[numNodes];
+        for (int i = 0; i < Math.min(numSources, 50); i++) {
+            topDownLevels(graph, sources[i], queue);
+            engine.run(sources[i]);
+        }
+
+        long start = System.nanoTime();
+        long topDownReached = 0;
+        for (int source : sources) {
+            for (int level : topDownLevels(graph, source, queue)) {
+                topDownReached += level >= 0 ? 1 : 0;
+            }
+        }
+        double topDownMillis = (System.nanoTime() - start) / 1e6;
+
+        start = System.nanoTime();
+        long reached = 0;
+        long examined = 0;
+        for (int source : sources) {
+            reached += engine.run(source).reachedCount();
+            examined += engine.edgesExamined();
+        }
+        double directionMillis = (System.nanoTime() - start) / 1e6;
+
+        // Levels must match the top-down BFS, and every parent must be one level up with an edge to its child
+        int mismatches = 0;
+        for (int i = 0; i < Math.min(numSources, 100); i++) {
+            BfsResult result = engine.run(sources[i]);
+            int[] expected = topDownLevels(graph, sources[i], queue);
+            for (int v = 0; v < numNodes; v++) {
+                int p = result.parent[v];
+                boolean validParent = p < 0 ? result.level[v] <= 0 : result.level[p] == result.level[v] - 1 && hasEdge(graph, p, v);
+                if (result.level[v] != expected[v] || !validParent) {
+                    mismatches++;
+                }
+            }
+        }
+        // Multi-source levels are the minimum over the single-source levels
+        int[] multiSources = Arrays.copyOf(sources, Math.min(numSources, 3));
+        BfsResult multi = engine.run(multiSources);
+        int[] nearest = new int[numNodes];
+        Arrays.fill(nearest, Integer.MAX_VALUE);
+        for (int source : multiSources) {
+            int[] levels = topDownLevels(graph, source, queue);
+            for (int v = 0; v < numNodes; v++) {
+                if (levels[v] >= 0) {
+                    nearest[v] = Math.min(nearest[v], levels[v]);
+                }
+            }
+        }
+        int multiMismatches = 0;
+        for (int v = 0; v < numNodes; v++) {
+            if (multi.level[v] != (nearest[v] == Integer.MAX_VALUE ? -1 : nearest[v])) {
+                multiMismatches++;
+            }
+        }
+
+        System.out.printf("BFS sweep from %d sources over %d nodes, %d edges:%n", numSources, numNodes, graph.edgeCount());
+        System.out.printf("  top-down:             %8.1f ms, %d nodes reached, %d edges examined%n", topDownMillis, topDownReached,
+                totalOutDegree(graph, sources, queue));
+        System.out.printf("  direction-optimizing: %8.1f ms, %d nodes reached, %d edges examined, %d mismatches%n",
+                directionMillis, reached, examined, mismatches);
+        System.out.printf("  multi-source BFS from %d sources: %d nodes reached, %d mismatches%n", multiSources.length,
+                multi.reachedCount(), multiMismatches);
+    }
+
+    private static boolean hasEdge(CsrGraph graph, int u, int v) {
+        for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+            if (graph.targets[e] == v) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Edges a top-down sweep examines: the out-degrees of every reached node, summed over the sources
+    private static long totalOutDegree(CsrGraph graph, int[] sources, int[] queue) {
+        long total = 0;
+        for (int source : sources) {
+            int[] level = topDownLevels(graph, source, queue);
+            for (int v = 0; v < level.length; v++) {
+                total += level[v] >= 0 ? graph.outDegree(v) : 0;
+            }
+        }
+        return total;
+    }
+    /*
+     * Time Complexity: O(V + E) per run in the worst case, typically a small fraction of E on dense graphs
+     * Space Complexity: O(V) for the result, O(V / 64) words per bitset
+     * */
+}
@@ -0,0 +1,241 @@
+/*
+* **** MEMORY-MAPPED ALL-PAIRS DISTANCE MATRIX ****
+* A V x V int matrix needs 4 * V^2 bytes (40 GB for 100,000 cities), so instead of an int[][] on the heap the all-pairs
+* distances are streamed to a file one row per source and read back through memory-mapped windows.
+*
+* FILE LAYOUT (little-endian):
+*       int   MAGIC ("ATRD")
+*       int   VERSION
+*       int   nodeCount (V)
+*       int   COMPLETE flag, only set once every row has been written and forced to disk
+*       int[] nodeIds (V)        dense index -> city ID
+*       int[] rows (V * V)       row i = distances from dense node i, Integer.MAX_VALUE if unreachable
+*
+* Writing: the sources run in parallel, each thread computes a row with its own DijkstraSearch and writes it straight to its
+* position in the file, so at most one row per thread is ever in memory.
+* Reading: the rows are mapped in windows of whole rows, distance(u, v) reads a single int from the page cache.
+* */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+public class DistanceMatrixFile implements Closeable {
+
+    static final int MAGIC = 0x44525441; // "ATRD" in little-endian byte order
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    private static final int COMPLETE_OFFSET = 12;
+
+    // Largest region mapped at once
+    private static final long WINDOW_BYTES = 1L << 30;
+
+    private final FileChannel channel;
+    private final int[] nodeIds;
+    private final int nodeCount;
+    private final int rowsPerWindow;
+    private final MappedByteBuffer[] windows;
+
+    private DistanceMatrixFile(FileChannel channel, int[] nodeIds) throws IOException {
+        this.channel = channel;
+        this.nodeIds = nodeIds;
+        this.nodeCount = nodeIds.length;
+        long rowBytes = 4L * Math.max(nodeCount, 1);
+        this.rowsPerWindow = (int) Math.max(1, WINDOW_BYTES / rowBytes);
+
+        long dataStart = dataOffset(nodeCount);
+        int numWindows = (nodeCount + rowsPerWindow - 1) / rowsPerWindow;
+        this.windows = new MappedByteBuffer[numWindows];
+        for (int w = 0; w < numWindows; w++) {
+            int firstRow = w * rowsPerWindow;
+            int rows = Math.min(rowsPerWindow, nodeCount - firstRow);
+            windows[w] = channel.map(FileChannel.MapMode.READ_ONLY, dataStart + firstRow * rowBytes, rows * rowBytes);
+            windows[w].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    // File position of the first row
+    private static long dataOffset(int nodeCount) {
+        return HEADER_BYTES + 4L * nodeCount;
+    }
+
+    // Method to compute all-pairs distances of a graph and stream them to a file, one row per source
+    public static void write(CsrGraph graph, String filePath, int parallelism) throws IOException {
+        int numNodes = graph.nodeCount();
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.READ, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // Header (not complete yet) and the ID table
+            ByteBuffer header = ByteBuffer.allocate((int) dataOffset(numNodes)).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(numNodes).putInt(0);
+            header.asIntBuffer().put(graph.nodeIds);
+            header.clear();
+            writeFully(channel, header, 0);
+
+            // Rows, computed and flushed in parallel
+            long dataStart = dataOffset(numNodes);
+            ThreadLocal<DijkstraSearch> searches = ThreadLocal.withInitial(() -> new DijkstraSearch(graph));
+            ThreadLocal<ByteBuffer> rowBuffers = ThreadLocal.withInitial(
+                    () -> ByteBuffer.allocateDirect(4 * Math.max(numNodes, 1)).order(ByteOrder.LITTLE_ENDIAN));
+            ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+            try {
+                pool.submit(() -> IntStream.range(0, numNodes).parallel().forEach(source -> {
+                    DijkstraSearch search = searches.get();
+                    search.run(source);
+                    ByteBuffer row = rowBuffers.get();
+                    row.clear();
+                    row.asIntBuffer().put(search.distance, 0, numNodes);
+                    row.limit(4 * numNodes);
+                    try {
+                        writeFully(channel, row, dataStart + 4L * source * numNodes);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })).join();
+            } catch (RuntimeException e) {
+                // The pool may wrap the exception again, look for the IOException of the failed write
+                for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                }
+                throw e;
+            } finally {
+                pool.shutdown();
+            }
+
+            // Only mark the file complete once every row is on disk
+            channel.force(false);
+            ByteBuffer complete = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, 1);
+            writeFully(channel, complete, COMPLETE_OFFSET);
+            channel.force(true);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    // Method to open a distance matrix file for random-access lookups
+    public static DistanceMatrixFile open(String filePath) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+        try {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Distance matrix file is truncated: " + filePath);
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, header, 0);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a distance matrix file: " + filePath);
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("Unsupported distance matrix version " + header.getInt(4) + ": " + filePath);
+            }
+            int numNodes = header.getInt(8);
+            if (header.getInt(COMPLETE_OFFSET) != 1) {
+                throw new IOException("Distance matrix file is incomplete: " + filePath);
+            }
+            if (numNodes < 0 || channel.size() != dataOffset(numNodes) + 4L * numNodes * numNodes) {
+                throw new IOException("Distance matrix size does not match its header: " + filePath);
+            }
+
+            ByteBuffer ids = ByteBuffer.allocate(4 * numNodes).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, ids, HEADER_BYTES);
+            ids.flip();
+            int[] nodeIds = new int[numNodes];
+            ids.asIntBuffer().get(nodeIds);
+            return new DistanceMatrixFile(channel, nodeIds);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Distance matrix file is truncated");
+            }
+            position += read;
+        }
+    }
+
+    // Number of nodes (rows)
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    // Method to look up the distance between two cities by ID (Integer.MAX_VALUE if unreachable or unknown)
+    public int distance(int fromNodeId, int toNodeId) {
+        int from = Arrays.binarySearch(nodeIds, fromNodeId);
+        int to = Arrays.binarySearch(nodeIds, toNodeId);
+        if (from < 0 || to < 0) {
+            return fromNodeId == toNodeId ? 0 : Integer.MAX_VALUE;
+        }
+        return distanceByIndex(from, to);
+    }
+
+    // Distance between two dense node indices
+    public int distanceByIndex(int from, int to) {
+        MappedByteBuffer window = windows[from / rowsPerWindow];
+        long offset = 4L * ((long) (from % rowsPerWindow) * nodeCount + to);
+        return window.getInt((int) offset);
+    }
+
+    // Method to copy one row (distances from a dense node index) into `row`
+    public void readRow(int from, int[] row) {
+        MappedByteBuffer window = windows[from / rowsPerWindow];
+        int offset = 4 * (from % rowsPerWindow) * nodeCount;
+        ByteBuffer slice = window.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        slice.position(offset);
+        slice.asIntBuffer().get(row, 0, nodeCount);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Paths to the dataset and to the matrix file to create
+        String filePath = args.length > 0 ? args[0] : "reachability.txt";
+        String matrixPath = args.length > 1 ? args[1] : "reachability.dist";
+
+        CsrGraph graph = GraphReader.loadGraph(filePath);
+        long start = System.nanoTime();
+        write(graph, matrixPath, Runtime.getRuntime().availableProcessors());
+        System.out.printf("Wrote %d x %d distances to %s in %.1f ms%n", graph.nodeCount(), graph.nodeCount(), matrixPath,
+                (System.nanoTime() - start) / 1e6);
+
+        // Random lookups, checked against an on-demand Dijkstra
+        try (DistanceMatrixFile matrix = open(matrixPath)) {
+            DijkstraSearch search = new DijkstraSearch(graph);
+            Random random = new Random(7);
+            int mismatches = 0;
+            for (int i = 0; i < 1000; i++) {
+                int from = random.nextInt(graph.nodeCount());
+                int to = random.nextInt(graph.nodeCount());
+                if (matrix.distance(graph.nodeIds[from], graph.nodeIds[to]) != search.runTo(from, to)) {
+                    mismatches++;
+                }
+            }
+            System.out.println("1000 random lookups, mismatches with Dijkstra: " + mismatches);
+        }
+    }
+    /*
+     * Time Complexity: O(V * (V + E) * log V / P) to write, O(1) per lookup
+     * Space Complexity: O(V) heap per thread, O(V^2) on disk
+     * */
+}
@@ -24,7 +24,64 @@
 * OUTPUT:
 *       * The Maximum flow is equal to the flow leaving the source node (or entering the sink node).
 * */
-import java.util.*;
+import java.util.Arrays;
+
+/*
+* Residual graph in CSR form: the row of node u holds its original out-edges followed by one backward (reverse) slot
+* for every edge entering u, with capacity 0. Capacities live in their own array, so the input graph keeps its weights.
+* mate[arc] is the arc in the opposite direction that was created with it (the backward slot of a forward arc and vice versa).
+* */
+class ResidualGraph {
+    final int[] offsets;
+    final int[] from;
+    final int[] target;
+    final int[] capacity;
+    final int[] mate;
+
+    // Constructor that copies the capacities of a CSR graph
+    ResidualGraph(CsrGraph graph) {
+        int numNodes = graph.nodeCount();
+        int numArcs = 2 * graph.edgeCount();
+        offsets = new int[numNodes + 1];
+        from = new int[numArcs];
+        target = new int[numArcs];
+        capacity = new int[numArcs];
+        mate = new int[numArcs];
+
+        for (int u = 0; u < numNodes; u++) {
+            offsets[u + 1] += graph.outDegree(u);
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                offsets[graph.targets[e] + 1]++;
+            }
+        }
+        for (int u = 0; u < numNodes; u++) {
+            offsets[u + 1] += offsets[u];
+        }
+
+        int[] cursor = Arrays.copyOf(offsets, numNodes);
+        for (int u = 0; u < numNodes; u++) {
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                int arc = cursor[u]++;
+                from[arc] = u;
+                target[arc] = graph.targets[e];
+                capacity[arc] = graph.weights[e];
+            }
+        }
+        // The forward arcs of u are the first out-degree(u) arcs of its row, in edge order
+        for (int u = 0; u < numNodes; u++) {
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                int v = graph.targets[e];
+                int arc = cursor[v]++;
+                int forwardArc = offsets[u] + (e - graph.offsets[u]);
+                from[arc] = v;
+                target[arc] = u;
+                capacity[arc] = 0;
+                mate[arc] = forwardArc;
+                mate[forwardArc] = arc;
+            }
+        }
+    }
+}
 
 public class FordFulkersonAlgorithm extends GraphReader {
 
@@ -32,15 +89,27 @@ public class FordFulkersonAlgorithm extends GraphReader {
         super(filePath);
     }
 
+    // Constructor that accepts an already loaded graph
+    public FordFulkersonAlgorithm(CsrGraph graph) {
+        super(graph);
+    }
+
     // Method to find the maximum flow in the network using Ford-Fulkerson algorithm
     public int findMaximumFlow(int sourceNode, int sinkNode) {
+        int source = csr.indexOf(sourceNode);
+        int sink = csr.indexOf(sinkNode);
+        if (source < 0 || sink < 0 || source == sink) {
+            return 0;
+        }
         int maxFlow = 0; // Initial flow of 0
 
-        // Create a residual graph initially identical to the original graph
-        Map<Integer, List<Edge>> residualGraph = new HashMap<>(adjacencyList);
+        // Create a residual graph initially identical to the original graph (the shared CSR graph itself is never modified)
+        ResidualGraph residualGraph = new ResidualGraph(csr);
 
         // Keep track of visited nodes during each path traversal
-        Set<Integer> visited = new HashSet<>();
+        boolean[] visited = new boolean[csr.nodeCount()];
+        // Residual arcs of the current augmenting path
+        int[] augmentingPath = new int[csr.nodeCount()];
 
         // Repeat the augmenting path search until no more augmenting paths can be found
         boolean foundAugmentingPath;
@@ -48,46 +117,31 @@ public class FordFulkersonAlgorithm extends GraphReader {
             foundAugmentingPath = false; // Reset flag for each iteration
 
             // Find an augmenting path using DFS
-            List<Integer> augmentingPath = new ArrayList<>();
-            visited.clear(); // Clear visited set for each new path search
-            if (dfs(sourceNode, sinkNode, visited, augmentingPath, residualGraph)) {
+            Arrays.fill(visited, false); // Clear visited set for each new path search
+            int pathLength = dfs(source, sink, visited, augmentingPath, 0, residualGraph);
+            if (pathLength > 0) {
                 foundAugmentingPath = true; // Mark that an augmenting path is found
 
                 // Find the bottleneck capacity of the augmenting path
                 int bottleneckCapacity = Integer.MAX_VALUE;
-                for (int i = 0; i < augmentingPath.size() - 1; i++) {
-                    int u = augmentingPath.get(i);
-                    int v = augmentingPath.get(i + 1);
-                    for (Edge edge : residualGraph.get(u)) {
-                        if (edge.toNodeId == v) {
-                            bottleneckCapacity = Math.min(bottleneckCapacity, edge.weight);
-                            break;
-                        }
-                    }
+                for (int i = 0; i < pathLength; i++) {
+                    bottleneckCapacity = Math.min(bottleneckCapacity, residualGraph.capacity[augmentingPath[i]]);
                 }
 
                 // Update the residual graph and maximum flow
-                for (int i = 0; i < augmentingPath.size() - 1; i++) {
-                    int u = augmentingPath.get(i);
-                    int v = augmentingPath.get(i + 1);
-                    for (Edge edge : residualGraph.get(u)) {
-                        if (edge.toNodeId == v) {
-                            edge.weight -= bottleneckCapacity; // Subtract from forward edge
+                for (int i = 0; i < pathLength; i++) {
+                    int arc = augmentingPath[i];
+                    residualGraph.capacity[arc] -= bottleneckCapacity; // Subtract from forward edge
+
+                    // Add to the first backward edge v -> u
+                    int u = residualGraph.from[arc];
+                    int v = residualGraph.target[arc];
+                    for (int back = residualGraph.offsets[v]; back < residualGraph.offsets[v + 1]; back++) {
+                        if (residualGraph.target[back] == u) {
+                            residualGraph.capacity[back] += bottleneckCapacity;
                             break;
                         }
                     }
-                    // Add a backward edge if it doesn't already exist
-                    boolean backwardEdgeExists = false;
-                    for (Edge edge : residualGraph.get(v)) {
-                        if (edge.toNodeId == u) {
-                            edge.weight += bottleneckCapacity;
-                            backwardEdgeExists = true;
-                            break;
-                        }
-                    }
-                    if (!backwardEdgeExists) {
-                        residualGraph.get(v).add(new Edge(v, u, bottleneckCapacity));
-                    }
                 }
 
                 // Increment the maximum flow by the bottleneck capacity of the augmenting path
@@ -100,22 +154,22 @@ public class FordFulkersonAlgorithm extends GraphReader {
     }
 
 
-    // Depth-first search (DFS) to find an augmenting path
-    private boolean dfs(int currentNode, int sinkNode, Set<Integer> visited, List<Integer> augmentingPath, Map<Integer, List<Edge>> graph) {
-        visited.add(currentNode);
-        augmentingPath.add(currentNode);
+    // Depth-first search (DFS) to find an augmenting path, returns the number of arcs on the path (0 if none)
+    private int dfs(int currentNode, int sinkNode, boolean[] visited, int[] augmentingPath, int depth, ResidualGraph graph) {
+        visited[currentNode] = true;
         if (currentNode == sinkNode) {
-            return true; // If sink node reached, augmenting path found
+            return depth; // If sink node reached, augmenting path found
         }
-        for (Edge edge : graph.getOrDefault(currentNode, Collections.emptyList())) {
-            if (!visited.contains(edge.toNodeId) && edge.weight > 0) {
-                if (dfs(edge.toNodeId, sinkNode, visited, augmentingPath, graph)) {
-                    return true; // If augmenting path found in child node, return true
+        for (int arc = graph.offsets[currentNode]; arc < graph.offsets[currentNode + 1]; arc++) {
+            if (!visited[graph.target[arc]] && graph.capacity[arc] > 0) {
+                augmentingPath[depth] = arc;
+                int pathLength = dfs(graph.target[arc], sinkNode, visited, augmentingPath, depth + 1, graph);
+                if (pathLength > 0) {
+                    return pathLength; // If augmenting path found in child node, return it
                 }
             }
         }
-        augmentingPath.remove(augmentingPath.size() - 1); // Backtrack if no augmenting path found
-        return false;
+        return 0; // Backtrack if no augmenting path found
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,258 @@
+/*
+* **** GOMORY-HU TREE (ALL-PAIRS MINIMUM CUTS) ****
+* A weighted tree on the cities such that the minimum cut between any two cities equals the smallest weight on the tree path
+* between them, and removing that tree edge splits the cities into the two sides of such a cut. It is built with V - 1
+* max-flow computations instead of one per pair, after which a pairwise query is a walk up the tree.
+*
+* UNDIRECTED CAPACITIES:
+*       Gomory-Hu trees exist for undirected graphs only (directed min cuts are not symmetric, so no tree can represent them).
+*       The tree is built on the symmetrized graph: the capacity between u and v is c(u, v) + c(v, u), the total capacity of
+*       the roads between them in both directions. That is the right measure for how well two cities stay connected when
+*       roads fail; directed cuts of one pair come from MaxFlow.minCut.
+*
+* GUSFIELD'S ALGORITHM (no graph contraction):
+*       Start with every node hanging from node 0. For s = 1 .. V - 1, with t = parent[s]:
+*           1. Minimum s-t cut (X, V - X) with s in X, of value f.
+*           2. Every other node in X whose parent is t is moved under s.
+*           3. If the parent of t is in X, s and t swap places: s takes t's parent and weight, t hangs from s with weight f.
+*           Otherwise s keeps parent t with weight f.
+*
+* PARALLEL WINDOWS:
+*       The cut of step s only depends on the pair (s, parent[s]). The cuts of a window of consecutive s are computed in
+*       parallel with the parents they have at the start of the window, then applied in order; a cut whose s got a new parent
+*       from an earlier step of the same window is recomputed. The tree is exactly the sequential one.
+*
+* Nodes are dense indices.
+* */
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+public class GomoryHuTree {
+
+    // parent[root] == root; weight[v] is the minimum cut between v and parent[v]
+    final int[] parent;
+    final long[] weight;
+    private final int[] depth;
+    private final int recomputedCuts;
+
+    private GomoryHuTree(int[] parent, long[] weight, int recomputedCuts) {
+        this.parent = parent;
+        this.weight = weight;
+        this.recomputedCuts = recomputedCuts;
+        this.depth = depths(parent);
+    }
+
+    // Method to build the tree of a graph (capacities symmetrized), running up to parallelism max-flows at once
+    public static GomoryHuTree build(CsrGraph graph, int parallelism) {
+        int numNodes = graph.nodeCount();
+        int[] parent = new int[numNodes];
+        long[] weight = new long[numNodes];
+        if (numNodes == 0) {
+            return new GomoryHuTree(parent, weight, 0);
+        }
+        ResidualGraph residual = new ResidualGraph(symmetrized(graph));
+        ThreadLocal<MaxFlow> engines = ThreadLocal.withInitial(() -> new MaxFlow(residual));
+        MaxFlow engine = new MaxFlow(residual);
+        int window = Math.max(1, parallelism);
+        int[] usedParent = new int[window];
+        MinCut[] cuts = new MinCut[window];
+        int recomputed = 0;
+
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try {
+            for (int first = 1; first < numNodes; first += window) {
+                int count = Math.min(window, numNodes - first);
+                int start = first;
+                for (int i = 0; i < count; i++) {
+                    usedParent[i] = parent[start + i];
+                }
+                if (pool == null) {
+                    cuts[0] = engine.minCut(start, usedParent[0]);
+                } else {
+                    pool.submit(() -> IntStream.range(0, count).parallel()
+                            .forEach(i -> cuts[i] = engines.get().minCut(start + i, usedParent[i]))).join();
+                }
+
+                for (int i = 0; i < count; i++) {
+                    int s = start + i;
+                    int t = parent[s];
+                    MinCut cut = cuts[i];
+                    if (t != usedParent[i]) {
+                        cut = engine.minCut(s, t);
+                        recomputed++;
+                    }
+                    boolean[] side = cut.sourceSide;
+                    weight[s] = cut.value;
+                    for (int v = 0; v < numNodes; v++) {
+                        if (v != s && side[v] && parent[v] == t) {
+                            parent[v] = s;
+                        }
+                    }
+                    if (side[parent[t]]) {
+                        parent[s] = parent[t];
+                        parent[t] = s;
+                        weight[s] = weight[t];
+                        weight[t] = cut.value;
+                    }
+                    cuts[i] = null;
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+        return new GomoryHuTree(parent, weight, recomputed);
+    }
+
+    // Undirected version of a graph: one arc each way between neighbors, with capacity c(u, v) + c(v, u); self-loops dropped
+    static CsrGraph symmetrized(CsrGraph graph) {
+        int numNodes = graph.nodeCount();
+        CsrGraph reverse = graph.reverse();
+        long[] sum = new long[numNodes];
+        boolean[] seen = new boolean[numNodes];
+        int[] touched = new int[numNodes];
+        int[] offsets = new int[numNodes + 1];
+        int[] targets = new int[graph.edgeCount() * 2];
+        int[] weights = new int[graph.edgeCount() * 2];
+        int arcs = 0;
+        for (int u = 0; u < numNodes; u++) {
+            int touchedCount = 0;
+            for (CsrGraph direction : new CsrGraph[]{graph, reverse}) {
+                for (int e = direction.offsets[u]; e < direction.offsets[u + 1]; e++) {
+                    int v = direction.targets[e];
+                    if (v == u) {
+                        continue;
+                    }
+                    if (!seen[v]) {
+                        seen[v] = true;
+                        touched[touchedCount++] = v;
+                    }
+                    sum[v] += direction.weights[e];
+                }
+            }
+            for (int i = 0; i < touchedCount; i++) {
+                int v = touched[i];
+                targets[arcs] = v;
+                weights[arcs++] = (int) Math.min(sum[v], Integer.MAX_VALUE);
+                sum[v] = 0;
+                seen[v] = false;
+            }
+            offsets[u + 1] = arcs;
+        }
+        return new CsrGraph(graph.nodeIds, offsets, Arrays.copyOf(targets, arcs), Arrays.copyOf(weights, arcs));
+    }
+
+    // Depth of every node below the root, following parent pointers (parents may have higher indices than their children)
+    private static int[] depths(int[] parent) {
+        int numNodes = parent.length;
+        int[] depth = new int[numNodes];
+        Arrays.fill(depth, -1);
+        int[] stack = new int[numNodes];
+        for (int v = 0; v < numNodes; v++) {
+            int size = 0;
+            int u = v;
+            while (depth[u] < 0 && parent[u] != u) {
+                stack[size++] = u;
+                u = parent[u];
+            }
+            if (depth[u] < 0) {
+                depth[u] = 0; // The root
+            }
+            while (size > 0) {
+                int w = stack[--size];
+                depth[w] = depth[parent[w]] + 1;
+            }
+        }
+        return depth;
+    }
+
+    // Method to find the minimum cut value between two nodes: the lightest edge on their tree path (Long.MAX_VALUE if u == v)
+    public long minCut(int u, int v) {
+        long result = Long.MAX_VALUE;
+        while (u != v) {
+            if (depth[u] < depth[v]) {
+                int swap = u;
+                u = v;
+                v = swap;
+            }
+            result = Math.min(result, weight[u]);
+            u = parent[u];
+        }
+        return result;
+    }
+
+    // Number of cuts computed twice because a window's speculation was overtaken by an earlier step
+    public int recomputedCuts() {
+        return recomputedCuts;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Path to the dataset and number of random pairs checked against a direct max-flow
+        String filePath = args.length > 0 ? args[0] : "reachability.txt";
+        int numChecks = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        CsrGraph graph = GraphReader.loadGraph(filePath);
+        int numNodes = graph.nodeCount();
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        GomoryHuTree tree = build(graph, processors);
+        double buildMillis = (System.nanoTime() - start) / 1e6;
+
+        // Check pairs against a direct max-flow on the symmetrized graph
+        MaxFlow engine = new MaxFlow(new ResidualGraph(symmetrized(graph)));
+        Random random = new Random(19);
+        int mismatches = 0;
+        start = System.nanoTime();
+        for (int q = 0; q < numChecks && numNodes > 1; q++) {
+            int u = random.nextInt(numNodes);
+            int v = random.nextInt(numNodes);
+            if (u != v && tree.minCut(u, v) != engine.dinic(u, v)) {
+                mismatches++;
+            }
+        }
+        double directMillis = (System.nanoTime() - start) / 1e6;
+
+        long pairs = 0;
+        start = System.nanoTime();
+        long checksum = 0;
+        for (int u = 0; u < numNodes; u++) {
+            for (int v = u + 1; v < numNodes; v++) {
+                checksum += tree.minCut(u, v);
+                pairs++;
+            }
+        }
+        double allPairsMillis = (System.nanoTime() - start) / 1e6;
+
+        System.out.printf("Gomory-Hu tree of %d cities: %d max-flows in %.1f ms with %d threads (%d recomputed)%n",
+                numNodes, Math.max(numNodes - 1, 0) + tree.recomputedCuts(), buildMillis, processors, tree.recomputedCuts());
+        System.out.printf("  %d random pairs vs direct max-flow: %d mismatches (direct: %.2f ms/pair)%n", numChecks, mismatches,
+                directMillis / Math.max(numChecks, 1));
+        System.out.printf("  all %d pairs from the tree in %.1f ms (checksum %d)%n", pairs, allPairsMillis, checksum);
+
+        // The least resilient cities: lightest tree edges
+        Integer[] byWeight = new Integer[numNodes];
+        for (int v = 0; v < numNodes; v++) {
+            byWeight[v] = v;
+        }
+        Arrays.sort(byWeight, (a, b) -> Long.compare(tree.weight[a], tree.weight[b]));
+        System.out.println("  weakest tree edges (city - city: min cut):");
+        for (int i = 0, shown = 0; i < numNodes && shown < 5; i++) {
+            int v = byWeight[i];
+            if (tree.parent[v] != v) {
+                System.out.printf("    %d - %d: %d%n", graph.nodeId(v), graph.nodeId(tree.parent[v]), tree.weight[v]);
+                shown++;
+            }
+        }
+    }
+    /*
+     * Time Complexity: O(V * maxflow) to build (V - 1 max-flows plus recomputations, run in parallel windows),
+     *                  O(tree depth) per pairwise query
+     * Space Complexity: O(V + E) for the tree and the symmetrized residual graph, O(V) per cut in a window
+     * */
+}
@@ -0,0 +1,80 @@
+/*
+* **** GRAPH LOADING BENCHMARK ****
+* Compares the parse throughput of the original BufferedReader + String.split reader with MappedEdgeListLoader.
+* Both readers fill an EdgeList, so only the text parsing is measured (the CSR build is identical for both).
+*
+* Usage: java GraphLoadBenchmark [edge list file] [rounds]
+* */
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+public class GraphLoadBenchmark {
+
+    // The reader GraphReader used before the memory-mapped loader: one String, one regex split and three parseInt per line
+    static EdgeList readWithSplit(String filePath) throws IOException {
+        EdgeList edges = new EdgeList();
+        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.startsWith("#") || line.trim().isEmpty()) {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                edges.add(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Math.abs(Integer.parseInt(parts[2])));
+            }
+        }
+        return edges;
+    }
+
+    interface EdgeListReader {
+        EdgeList read(String filePath) throws IOException;
+    }
+
+    // Runs one reader `rounds` times and prints the best time, the throughput and the bytes allocated per edge
+    static void measure(String name, EdgeListReader reader, String filePath, int rounds) throws IOException {
+        // Warm-up so the JIT has compiled the parse loop
+        for (int i = 0; i < 3; i++) {
+            reader.read(filePath);
+        }
+
+        long bestNanos = Long.MAX_VALUE;
+        long allocatedBytes = 0;
+        int edgeCount = 0;
+        for (int i = 0; i < rounds; i++) {
+            long allocatedBefore = threadAllocatedBytes();
+            long start = System.nanoTime();
+            EdgeList edges = reader.read(filePath);
+            long elapsed = System.nanoTime() - start;
+            allocatedBytes = threadAllocatedBytes() - allocatedBefore;
+            bestNanos = Math.min(bestNanos, elapsed);
+            edgeCount = edges.size;
+        }
+
+        double seconds = bestNanos / 1e9;
+        System.out.printf("%-22s %,10d edges  %8.2f ms  %,14.0f edges/s  %8.1f bytes allocated/edge%n",
+                name, edgeCount, seconds * 1e3, edgeCount / seconds,
+                allocatedBytes < 0 ? Double.NaN : (double) allocatedBytes / Math.max(edgeCount, 1));
+    }
+
+    // Bytes allocated by the current thread so far (-1 if the JVM cannot tell)
+    private static long threadAllocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Path to the dataset file
+        String filePath = args.length > 0 ? args[0] : "reachability.txt";
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        System.out.println("Parsing " + filePath + " (best of " + rounds + " rounds)");
+        measure("BufferedReader+split", GraphLoadBenchmark::readWithSplit, filePath, rounds);
+        measure("memory-mapped", MappedEdgeListLoader::readEdges, filePath, rounds);
+    }
+}
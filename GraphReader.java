@@ -22,13 +22,11 @@
     estimated to be -757, indicating some level of dissimilarity of possibly travel time.
 * */
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 // Class to represent a node in the graph
 class Node {
@@ -56,59 +54,63 @@ class Edge {
 
 // Class to represent a directed graph
 class Graph {
-    Map<Integer, List<Edge>> adjacencyList;
+    // Immutable CSR adjacency shared by every algorithm (see CsrGraph)
+    CsrGraph csr;
 
     // Constructor for Graph class
-    public Graph() {
-        this.adjacencyList = new HashMap<>();
-    }
-
-    // Method to add an edge to the graph
-    public void addEdge(int fromNodeId, int toNodeId, int weight) {
-        Edge edge = new Edge(fromNodeId, toNodeId, weight);
-
-        /*
-        * If FromNodeID is not in the Map, we're adding it.
-        * Else we get the FromNodeID and add the new edge
-        */
-        if (!adjacencyList.containsKey(fromNodeId)) {
-            adjacencyList.put(fromNodeId, new ArrayList<>());
-        }
-        adjacencyList.get(fromNodeId).add(edge);
+    public Graph(CsrGraph csr) {
+        this.csr = csr;
     }
 
     // Method to get adjacency list of a node
+    // Creates Edge objects on every call, so algorithms iterate csr.offsets/targets/weights directly instead
     public List<Edge> getAdjacentEdges(int nodeId) {
-        return adjacencyList.getOrDefault(nodeId, new ArrayList<>());
+        List<Edge> edges = new ArrayList<>();
+        int node = csr.indexOf(nodeId);
+        if (node < 0) {
+            return edges;
+        }
+        for (int e = csr.offsets[node]; e < csr.offsets[node + 1]; e++) {
+            edges.add(new Edge(nodeId, csr.nodeIds[csr.targets[e]], csr.weights[e]));
+        }
+        return edges;
     }
 }
 
 public class GraphReader extends Graph{
 
-    // Constructor that accepts a file path
+    // Constructor that accepts a file path (edge list text file or binary snapshot)
     public GraphReader(String filePath) {
-        super();
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                // Skip comments and empty lines
-                if (line.startsWith("#") || line.trim().isEmpty()) {
-                    continue;
-                }
-
-                // Split the line by whitespace
-                String[] parts = line.split("\\s+");
-
-                // Parse the data
-                int fromNodeId = Integer.parseInt(parts[0]);
-                int toNodeId = Integer.parseInt(parts[1]);
-                int weight = Math.abs(Integer.parseInt(parts[2]));
-
-                // Add the edge to the graph (inherited method from Graph class)
-                addEdge(fromNodeId, toNodeId, weight);
-            }
+        super(readGraph(filePath));
+    }
+
+    // Constructor that accepts an already loaded graph, so one load can serve many analyses
+    public GraphReader(CsrGraph graph) {
+        super(graph);
+    }
+
+    // Edge list files at least this large are parsed on all cores (see ParallelEdgeListLoader)
+    static final long PARALLEL_LOAD_BYTES = 64L << 20;
+
+    // Method to load a graph file, either a binary snapshot (see GraphSnapshot) or a memory-mapped edge list
+    public static CsrGraph loadGraph(String filePath) throws IOException {
+        if (GraphSnapshot.isSnapshot(filePath)) {
+            return GraphSnapshot.load(filePath);
+        }
+        int processors = Runtime.getRuntime().availableProcessors();
+        if (processors > 1 && Files.size(Paths.get(filePath)) >= PARALLEL_LOAD_BYTES) {
+            return new ParallelEdgeListLoader(processors).load(filePath);
+        }
+        return MappedEdgeListLoader.load(filePath);
+    }
+
+    // Method to read a graph file, printing the error and returning an empty graph if it cannot be read
+    static CsrGraph readGraph(String filePath) {
+        try {
+            return loadGraph(filePath);
         } catch (IOException e) {
             e.printStackTrace();
+            return CsrGraph.EMPTY;
         }
     }
 
@@ -127,7 +129,7 @@ public class GraphReader extends Graph{
 //        }
 
         System.out.println("\n---- ALL THE EDGES ----\n");
-        for (int nodeId : graph.adjacencyList.keySet()) {
+        for (int nodeId : graph.csr.nodeIds) {
             adjacentEdges = graph.getAdjacentEdges(nodeId);
             System.out.println("Adjacent edges of node " + nodeId + ":");
             for (Edge edge : adjacentEdges) {
@@ -136,12 +138,13 @@ public class GraphReader extends Graph{
         }
 
         System.out.println("\n---- Graph Traversal ---- ");
-        BFS bfs = new BFS(filePath);
+        // Reuse the graph that is already loaded instead of parsing the file again
+        BFS bfs = new BFS(graph.csr);
 
         System.out.print("BFS: ");
         bfs.bfsTraversal(0);
         System.out.println();
-        DFS dfs = new DFS(filePath);
+        DFS dfs = new DFS(graph.csr);
         System.out.print("DFS: ");
         dfs.dfsTraversal(0);
 
@@ -149,12 +152,12 @@ public class GraphReader extends Graph{
     }
     /*
     * TIME COMPLEXITY:
-    * Time Complexity of the Reading the graph: O(n)
+    * Time Complexity of the Reading the graph: O(n) (once, the traversals share the loaded graph)
     * Printing, BFS, DFS: O(V + E)
     * i.e., O(n + V + E)
     *
     * SPACE COMPLEXITY:
-    * O(V + E) -- > for adjacency matrix
+    * O(V + E) -- > for the CSR adjacency arrays
     *
     * */
 }
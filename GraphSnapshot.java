@@ -0,0 +1,214 @@
+/*
+* **** BINARY GRAPH SNAPSHOT ****
+* Parsing `reachability.txt` on every start is wasted work, so the CSR arrays can be written once to a binary snapshot
+* and mapped back in milliseconds.
+*
+* FILE LAYOUT (little-endian):
+*       int   MAGIC ("ATRN")
+*       int   VERSION
+*       int   nodeCount (V)
+*       int   edgeCount (E)
+*       int[] nodeIds   (V)      dense index -> city ID
+*       int[] offsets   (V + 1)
+*       int[] targets   (E)
+*       int[] weights   (E)
+*       long  CRC32 of every byte before it
+*
+* Loading memory-maps the file, checks magic, version and sizes, and bulk-copies the arrays out of the mapping while
+* updating the checksum. A snapshot that fails any check is rejected with an IOException.
+*
+* Usage: java GraphSnapshot <edge list file> <snapshot file>
+* */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+public final class GraphSnapshot {
+
+    static final int MAGIC = 0x4E525441; // "ATRN" in little-endian byte order
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+
+    // Largest region mapped at once while loading (a multiple of 4 so ints never straddle two windows)
+    private static final int WINDOW_BYTES = 1 << 30;
+    // Size of the staging buffer used while writing
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+
+    private GraphSnapshot() {
+    }
+
+    // Method to check whether a file starts with the snapshot magic number
+    public static boolean isSnapshot(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    return false;
+                }
+            }
+            return header.getInt(0) == MAGIC;
+        }
+    }
+
+    // Method to write a graph to a snapshot file (written to a temporary file first, then moved into place)
+    public static void write(CsrGraph graph, String filePath) throws IOException {
+        Path target = Paths.get(filePath);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            SnapshotWriter writer = new SnapshotWriter(channel);
+            writer.putInt(MAGIC);
+            writer.putInt(VERSION);
+            writer.putInt(graph.nodeCount());
+            writer.putInt(graph.edgeCount());
+            writer.putInts(graph.nodeIds);
+            writer.putInts(graph.offsets);
+            writer.putInts(graph.targets);
+            writer.putInts(graph.weights);
+            writer.finish();
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Method to load a snapshot file
+    public static CsrGraph load(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES + 8) {
+                throw new IOException("Graph snapshot is truncated: " + filePath);
+            }
+
+            CRC32 crc = new CRC32();
+            MappedByteBuffer headerBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            headerBuffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (headerBuffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a graph snapshot: " + filePath);
+            }
+            int version = headerBuffer.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported graph snapshot version " + version + ": " + filePath);
+            }
+            int nodeCount = headerBuffer.getInt(8);
+            int edgeCount = headerBuffer.getInt(12);
+            long expectedSize = HEADER_BYTES + 4L * (2L * nodeCount + 1 + 2L * edgeCount) + 8;
+            if (nodeCount < 0 || edgeCount < 0 || fileSize != expectedSize) {
+                throw new IOException("Graph snapshot size does not match its header: " + filePath);
+            }
+            crc.update(headerBuffer);
+
+            long position = HEADER_BYTES;
+            int[] nodeIds = new int[nodeCount];
+            position = readInts(channel, position, nodeIds, crc);
+            int[] offsets = new int[nodeCount + 1];
+            position = readInts(channel, position, offsets, crc);
+            int[] targets = new int[edgeCount];
+            position = readInts(channel, position, targets, crc);
+            int[] weights = new int[edgeCount];
+            position = readInts(channel, position, weights, crc);
+
+            MappedByteBuffer trailer = channel.map(FileChannel.MapMode.READ_ONLY, position, 8);
+            if (trailer.order(ByteOrder.LITTLE_ENDIAN).getLong(0) != crc.getValue()) {
+                throw new IOException("Graph snapshot checksum mismatch: " + filePath);
+            }
+            if (offsets[0] != 0 || offsets[nodeCount] != edgeCount) {
+                throw new IOException("Graph snapshot offsets are inconsistent: " + filePath);
+            }
+            return new CsrGraph(nodeIds, offsets, targets, weights);
+        }
+    }
+
+    // Copies ints out of the mapped file window by window, returns the position after the array
+    private static long readInts(FileChannel channel, long position, int[] values, CRC32 crc) throws IOException {
+        int done = 0;
+        while (done < values.length) {
+            int count = Math.min(values.length - done, WINDOW_BYTES / 4);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, 4L * count);
+            window.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(values, done, count);
+            crc.update(window);
+            done += count;
+            position += 4L * count;
+        }
+        return position;
+    }
+
+    // Buffers ints into a direct ByteBuffer, keeps the running CRC32 and appends it on finish()
+    private static final class SnapshotWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32 crc = new CRC32();
+
+        SnapshotWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            if (buffer.remaining() < 4) {
+                flush();
+            }
+            buffer.putInt(value);
+        }
+
+        void putInts(int[] values) throws IOException {
+            int done = 0;
+            while (done < values.length) {
+                if (buffer.remaining() < 4) {
+                    flush();
+                }
+                int count = Math.min(values.length - done, buffer.remaining() / 4);
+                buffer.asIntBuffer().put(values, done, count);
+                buffer.position(buffer.position() + 4 * count);
+                done += count;
+            }
+        }
+
+        void finish() throws IOException {
+            flush();
+            buffer.putLong(crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Paths to the text dataset and to the snapshot to create
+        String textPath = args.length > 0 ? args[0] : "reachability.txt";
+        String snapshotPath = args.length > 1 ? args[1] : "reachability.snap";
+
+        long start = System.nanoTime();
+        CsrGraph graph = MappedEdgeListLoader.load(textPath);
+        long parsed = System.nanoTime();
+        write(graph, snapshotPath);
+        long written = System.nanoTime();
+        CsrGraph loaded = load(snapshotPath);
+        long loadedAt = System.nanoTime();
+
+        System.out.printf("Parsed %s (%d nodes, %d edges) in %.2f ms%n", textPath, graph.nodeCount(), graph.edgeCount(), (parsed - start) / 1e6);
+        System.out.printf("Wrote %s in %.2f ms%n", snapshotPath, (written - parsed) / 1e6);
+        System.out.printf("Loaded %s (%d nodes, %d edges) in %.2f ms%n", snapshotPath, loaded.nodeCount(), loaded.edgeCount(), (loadedAt - written) / 1e6);
+    }
+    /*
+     * Time Complexity: O(V + E) for both writing and loading
+     * Space Complexity: O(V + E)
+     * */
+}
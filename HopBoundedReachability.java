@@ -0,0 +1,257 @@
+/*
+* **** HOP-BOUNDED REACHABILITY ("WITHIN N CONNECTIONS") ****
+* Questions about trips of at most k legs. An edge of the dataset already means "travel time below a threshold", so one hop
+* is one leg.
+*
+* WITHIN k HOPS:
+*       Level-bounded BFS (DirectionOptimizingBfs with a level limit): stops after level k, with bitset frontiers.
+*
+* WITHIN k HOPS AND A TIME BUDGET:
+*       The fastest route may need more legs than the one with fewest legs, so this is a shortest path with at most k edges:
+*       k rounds of Bellman-Ford. Round i relaxes only the out-edges of nodes whose time improved in round i - 1, reading
+*       the times of round i - 1 (a second array), so after round i every time is the fastest with at most i legs. Times
+*       over the budget are never propagated.
+*
+* k-HOP NEIGHBORHOOD SIZES OF ALL CITIES (bit-parallel multi-source BFS):
+*       Sources are taken 64 * WORDS at a time. For one block, every node holds a small bitset of the sources that reach it,
+*       and one round pulls the bitsets of its in-neighbors: reach_i(v) = reach_(i-1)(v) | OR of reach_(i-1)(u) over u -> v.
+*       After k rounds, bit s of node v says v is within k hops of source s. One pass over the edges serves 64 * WORDS
+*       sources with word-wide ORs, instead of one BFS per source, and blocks run in parallel.
+*
+* Nodes are dense indices; an engine is a reusable workspace for one thread.
+* */
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+public class HopBoundedReachability {
+
+    // Words per node bitset in the multi-source BFS: 256 sources per block
+    static final int WORDS = 4;
+
+    private final CsrGraph graph;
+    private final DirectionOptimizingBfs bfs;
+    // Bellman-Ford rounds: times of the previous and the current round, equal outside the nodes changed in the round
+    private final int[] previousTime;
+    private final int[] currentTime;
+    private final int[] changed;
+    private final int[] nextChanged;
+    private final boolean[] inNext;
+    private final int[] touched;
+    private int touchedCount;
+
+    // Constructor for an engine over a graph
+    public HopBoundedReachability(CsrGraph graph) {
+        this.graph = graph;
+        this.bfs = new DirectionOptimizingBfs(graph);
+        int numNodes = graph.nodeCount();
+        previousTime = new int[numNodes];
+        currentTime = new int[numNodes];
+        changed = new int[numNodes];
+        nextChanged = new int[numNodes];
+        inNext = new boolean[numNodes];
+        touched = new int[numNodes];
+        Arrays.fill(previousTime, Integer.MAX_VALUE);
+        Arrays.fill(currentTime, Integer.MAX_VALUE);
+    }
+
+    // Method to find the nodes within maxHops hops of source (source included), nearest first
+    public int[] withinHops(int source, int maxHops) {
+        return bfs.run(source, maxHops).order;
+    }
+
+    // Method to find the nodes within maxHops hops of any of the sources
+    public int[] withinHops(int[] sources, int maxHops) {
+        return bfs.run(sources, maxHops).order;
+    }
+
+    /*
+    * Method to find the nodes reachable from source with at most maxHops legs and a total travel time of at most timeBudget
+    * (source included); fastestTime(node) then holds the fastest such time.
+    * */
+    public int[] withinHopsAndTime(int source, int maxHops, int timeBudget) {
+        for (int i = 0; i < touchedCount; i++) {
+            previousTime[touched[i]] = Integer.MAX_VALUE;
+            currentTime[touched[i]] = Integer.MAX_VALUE;
+        }
+        touchedCount = 0;
+        previousTime[source] = 0;
+        currentTime[source] = 0;
+        touched[touchedCount++] = source;
+        changed[0] = source;
+        int changedCount = 1;
+
+        for (int round = 0; round < maxHops && changedCount > 0; round++) {
+            int nextCount = 0;
+            for (int i = 0; i < changedCount; i++) {
+                int u = changed[i];
+                int time = previousTime[u];
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    int v = graph.targets[e];
+                    long arrival = (long) time + graph.weights[e];
+                    if (arrival <= timeBudget && arrival < currentTime[v]) {
+                        if (currentTime[v] == Integer.MAX_VALUE) {
+                            touched[touchedCount++] = v;
+                        }
+                        currentTime[v] = (int) arrival;
+                        if (!inNext[v]) {
+                            inNext[v] = true;
+                            nextChanged[nextCount++] = v;
+                        }
+                    }
+                }
+            }
+            // The next round reads this round's times
+            for (int i = 0; i < nextCount; i++) {
+                int v = nextChanged[i];
+                previousTime[v] = currentTime[v];
+                inNext[v] = false;
+                changed[i] = v;
+            }
+            changedCount = nextCount;
+        }
+        return Arrays.copyOf(touched, touchedCount);
+    }
+
+    // Fastest time to a node found by the last withinHopsAndTime (Integer.MAX_VALUE if not within the limits)
+    public int fastestTime(int node) {
+        return currentTime[node];
+    }
+
+    // Method to count, for every node, the other nodes within maxHops hops of it (bit-parallel, source blocks in parallel)
+    public static int[] neighborhoodSizes(CsrGraph graph, int maxHops, int parallelism) {
+        int numNodes = graph.nodeCount();
+        CsrGraph reverse = graph.reverse();
+        int[] sizes = new int[numNodes];
+        int blockSize = 64 * WORDS;
+        int numBlocks = (numNodes + blockSize - 1) / blockSize;
+        AtomicInteger nextBlock = new AtomicInteger();
+        Runnable worker = () -> {
+            long[] reach = new long[numNodes * WORDS];
+            long[] next = new long[numNodes * WORDS];
+            for (int block = nextBlock.getAndIncrement(); block < numBlocks; block = nextBlock.getAndIncrement()) {
+                long[] result = blockReach(graph, reverse, block * blockSize, maxHops, reach, next);
+                int first = block * blockSize;
+                for (int v = 0; v < numNodes; v++) {
+                    for (int w = 0; w < WORDS; w++) {
+                        for (long bits = result[v * WORDS + w]; bits != 0; bits &= bits - 1) {
+                            int source = first + (w << 6) + Long.numberOfTrailingZeros(bits);
+                            if (source != v) {
+                                sizes[source]++; // Each source belongs to this block only, so no other thread writes it
+                            }
+                        }
+                    }
+                }
+            }
+        };
+        if (parallelism <= 1) {
+            worker.run();
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.submit(() -> IntStream.range(0, parallelism).parallel().forEach(t -> worker.run())).join();
+            } finally {
+                pool.shutdown();
+            }
+        }
+        return sizes;
+    }
+
+    // Reach bitsets of the sources first .. first + 64 * WORDS - 1 after maxHops rounds; returns whichever buffer holds them
+    private static long[] blockReach(CsrGraph graph, CsrGraph reverse, int first, int maxHops, long[] reach, long[] next) {
+        int numNodes = graph.nodeCount();
+        Arrays.fill(reach, 0);
+        for (int s = first; s < Math.min(first + 64 * WORDS, numNodes); s++) {
+            int bit = s - first;
+            reach[s * WORDS + (bit >>> 6)] |= 1L << bit;
+        }
+        for (int round = 0; round < maxHops; round++) {
+            boolean grew = false;
+            for (int v = 0; v < numNodes; v++) {
+                int base = v * WORDS;
+                for (int w = 0; w < WORDS; w++) {
+                    long bits = reach[base + w];
+                    for (int e = reverse.offsets[v]; e < reverse.offsets[v + 1]; e++) {
+                        bits |= reach[reverse.targets[e] * WORDS + w];
+                    }
+                    next[base + w] = bits;
+                    grew |= bits != reach[base + w];
+                }
+            }
+            long[] swap = reach;
+            reach = next;
+            next = swap;
+            if (!grew) {
+                break;
+            }
+        }
+        return reach;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Path to the dataset, the hop limit and the time budget of the example queries
+        String filePath = args.length > 0 ? args[0] : "reachability.txt";
+        int maxHops = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int timeBudget = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+        CsrGraph graph = GraphReader.loadGraph(filePath);
+        int numNodes = graph.nodeCount();
+        int processors = Runtime.getRuntime().availableProcessors();
+        HopBoundedReachability engine = new HopBoundedReachability(graph);
+
+        // Example queries from the first city
+        int city = graph.nodeId(0);
+        int[] withinHops = engine.withinHops(0, maxHops);
+        int[] withinBudget = engine.withinHopsAndTime(0, maxHops, timeBudget);
+        System.out.printf("From city %d: %d cities within %d hops, %d of them within %d time units%n", city,
+                withinHops.length - 1, maxHops, withinBudget.length - 1, timeBudget);
+
+        neighborhoodSizes(graph, 1, processors); // Warm-up
+        for (int hops = 1; hops <= 3; hops++) {
+            // Baseline: one level-bounded top-down BFS per city
+            long start = System.nanoTime();
+            int[] expected = new int[numNodes];
+            int[] queue = new int[numNodes];
+            int[] level = new int[numNodes];
+            for (int s = 0; s < numNodes; s++) {
+                Arrays.fill(level, -1);
+                int head = 0;
+                int tail = 0;
+                level[s] = 0;
+                queue[tail++] = s;
+                while (head < tail) {
+                    int u = queue[head++];
+                    if (level[u] == hops) {
+                        continue;
+                    }
+                    for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                        if (level[graph.targets[e]] < 0) {
+                            level[graph.targets[e]] = level[u] + 1;
+                            queue[tail++] = graph.targets[e];
+                        }
+                    }
+                }
+                expected[s] = tail - 1;
+            }
+            double bfsMillis = (System.nanoTime() - start) / 1e6;
+
+            start = System.nanoTime();
+            int[] sizes = neighborhoodSizes(graph, hops, processors);
+            double bitParallelMillis = (System.nanoTime() - start) / 1e6;
+            long total = 0;
+            for (int size : sizes) {
+                total += size;
+            }
+            System.out.printf("%d-hop neighborhoods of all %d cities: BFS per city %.1f ms, bit-parallel on %d threads %.1f ms "
+                    + "(average %.1f cities, same: %b)%n", hops, numNodes, bfsMillis, processors, bitParallelMillis,
+                    (double) total / Math.max(numNodes, 1), Arrays.equals(expected, sizes));
+        }
+    }
+    /*
+     * Time Complexity: O(V + E) for a k-hop set, O(k * E) for the time budget, O(k * E * V / 64) for all neighborhood sizes
+     * Space Complexity: O(V) per engine, O(V * WORDS) words per thread for the neighborhood sizes
+     * */
+}
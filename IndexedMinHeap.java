@@ -0,0 +1,213 @@
+/*
+* **** INDEXED D-ARY MIN-HEAP ****
+* Priority queue over the items 0 .. capacity-1 (dense node indices) with int keys.
+* Unlike a plain heap it knows where every item sits (position array), so:
+*       * an item is in the heap at most once, the heap never holds more than V entries.
+*       * decreaseKey moves an item up in O(log V) instead of pushing a duplicate entry.
+*       * clear() only touches the items still in the heap, so the heap can be reused across searches without an O(V) reset.
+* Every node has `arity` children (2 by default). A wider heap is flatter: decreaseKey, the frequent operation when many
+* edges improve keys (Prim, Dijkstra on dense graphs), climbs log_d V levels, while pollMin compares d children per level.
+* */
+
+public class IndexedMinHeap {
+    private final int[] heap;      // heap[i] = item at heap position i
+    private final int[] position;  // position[item] = heap position of item, or -1 if not in the heap
+    private final int[] keys;      // keys[item] = current key of item
+    private final int arity;
+    private final int shift;       // log2(arity) when arity is a power of two, -1 otherwise
+    private int size;
+
+    // Constructor for a binary heap over the items 0 .. capacity-1
+    public IndexedMinHeap(int capacity) {
+        this(capacity, 2);
+    }
+
+    // Constructor for a heap with `arity` children per node over the items 0 .. capacity-1
+    public IndexedMinHeap(int capacity, int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("arity must be at least 2: " + arity);
+        }
+        heap = new int[capacity];
+        position = new int[capacity];
+        keys = new int[capacity];
+        this.arity = arity;
+        this.shift = Integer.bitCount(arity) == 1 ? Integer.numberOfTrailingZeros(arity) : -1;
+        java.util.Arrays.fill(position, -1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Whether an item is currently in the heap
+    public boolean contains(int item) {
+        return position[item] >= 0;
+    }
+
+    // Current key of an item in the heap
+    public int key(int item) {
+        return keys[item];
+    }
+
+    // Smallest key in the heap
+    public int minKey() {
+        return keys[heap[0]];
+    }
+
+    // Method to insert an item that is not in the heap
+    public void insert(int item, int key) {
+        keys[item] = key;
+        position[item] = size;
+        heap[size] = item;
+        siftUp(size++);
+    }
+
+    // Method to lower the key of an item that is in the heap
+    public void decreaseKey(int item, int key) {
+        keys[item] = key;
+        siftUp(position[item]);
+    }
+
+    // Inserts the item, or lowers its key if it is in the heap with a larger key; returns whether anything changed
+    public boolean insertOrDecrease(int item, int key) {
+        if (position[item] < 0) {
+            insert(item, key);
+            return true;
+        }
+        if (key < keys[item]) {
+            decreaseKey(item, key);
+            return true;
+        }
+        return false;
+    }
+
+    // Method to remove and return the item with the smallest key
+    public int pollMin() {
+        int min = heap[0];
+        position[min] = -1;
+        size--;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    // Method to empty the heap, O(size)
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    // The binary heap (the default, used by every search) keeps its own loops with shifts; wider heaps use the general ones
+    private void siftUp(int i) {
+        if (arity == 2) {
+            siftUpBinary(i);
+        } else {
+            siftUpWide(i);
+        }
+    }
+
+    private void siftDown(int i) {
+        if (arity == 2) {
+            siftDownBinary(i);
+        } else {
+            siftDownWide(i);
+        }
+    }
+
+    private void siftUpBinary(int i) {
+        int item = heap[i];
+        int key = keys[item];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int parentItem = heap[parent];
+            if (keys[parentItem] <= key) {
+                break;
+            }
+            heap[i] = parentItem;
+            position[parentItem] = i;
+            i = parent;
+        }
+        heap[i] = item;
+        position[item] = i;
+    }
+
+    private void siftDownBinary(int i) {
+        int item = heap[i];
+        int key = keys[item];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            int childItem = heap[child];
+            if (key <= keys[childItem]) {
+                break;
+            }
+            heap[i] = childItem;
+            position[childItem] = i;
+            i = child;
+        }
+        heap[i] = item;
+        position[item] = i;
+    }
+
+    private void siftUpWide(int i) {
+        int item = heap[i];
+        int key = keys[item];
+        while (i > 0) {
+            int parent = shift >= 0 ? (i - 1) >>> shift : (i - 1) / arity;
+            int parentItem = heap[parent];
+            if (keys[parentItem] <= key) {
+                break;
+            }
+            heap[i] = parentItem;
+            position[parentItem] = i;
+            i = parent;
+        }
+        heap[i] = item;
+        position[item] = i;
+    }
+
+    private void siftDownWide(int i) {
+        int item = heap[i];
+        int key = keys[item];
+        while (true) {
+            int firstChild = (shift >= 0 ? i << shift : arity * i) + 1;
+            if (firstChild >= size) {
+                break;
+            }
+            // Smallest child (the first one on ties)
+            int child = firstChild;
+            int lastChild = Math.min(firstChild + arity, size);
+            for (int c = firstChild + 1; c < lastChild; c++) {
+                if (keys[heap[c]] < keys[heap[child]]) {
+                    child = c;
+                }
+            }
+            int childItem = heap[child];
+            if (key <= keys[childItem]) {
+                break;
+            }
+            heap[i] = childItem;
+            position[childItem] = i;
+            i = child;
+        }
+        heap[i] = item;
+        position[item] = i;
+    }
+    /*
+     * Time Complexity: O(log_d V) for insert and decreaseKey, O(d log_d V) for pollMin, O(1) for contains and minKey
+     * Space Complexity: O(V)
+     * */
+}
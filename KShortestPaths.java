@@ -0,0 +1,316 @@
+/*
+* **** K SHORTEST SIMPLE PATHS (YEN'S ALGORITHM) ****
+* Lists the simple (loop-free) paths from a source to a target in order of length, one path per call to next().
+*
+* Yen's algorithm:
+*       A = paths already returned, B = candidate paths (a min-heap by length).
+*       The first path is the Dijkstra shortest path. To find path k + 1, every node P[i] of path k (except the target) is
+*       used as a spur node:
+*           root path = P[0 .. i]
+*           ban the edge P[i] -> p[i + 1] of every path p in A that starts with the same root path (so the spur path leaves
+*           the root differently from every known path), and ban the root nodes P[0 .. i - 1] (so the result stays simple),
+*           spur path = shortest path P[i] ~> target in what is left,
+*           candidate = root path + spur path, pushed to B unless it was seen before.
+*       Path k + 1 is the shortest candidate in B.
+*
+* The iterator is lazy: only the spur searches of the last returned path run on each call to next(), so asking for one more
+* route costs about (path length) Dijkstra searches. The spur searches of one round are independent; with parallelism > 1
+* and at least PARALLEL_SPUR_NODES spur nodes they run on a ForkJoinPool, each thread reusing its own search buffers.
+* Candidates are merged in spur-node order and ties are broken by the node sequence, so the output does not depend on the
+* number of threads.
+*
+* Paths are arrays of dense node indices; ShortestPath.findAlternativeRoutes converts them to city IDs.
+* */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+public class KShortestPaths implements Iterator<int[]>, AutoCloseable {
+
+    // Fewest spur nodes in a round for the searches to run in parallel
+    static final int PARALLEL_SPUR_NODES = 8;
+
+    private final CsrGraph graph;
+    private final int source;
+    private final int target;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<SpurSearch> searches;
+
+    // A: the paths returned so far, B: the candidates, and every path ever generated (A and B) for duplicate checks
+    private final List<Path> found = new ArrayList<>();
+    private final PriorityQueue<Path> candidates = new PriorityQueue<>();
+    private final Set<Path> seen = new HashSet<>();
+    private boolean started;
+    private int lastDistance = Integer.MAX_VALUE;
+
+    // A path with its length and the distance from the source at every node
+    private static final class Path implements Comparable<Path> {
+        final int[] nodes;
+        final int[] prefixDistance;
+
+        Path(int[] nodes, int[] prefixDistance) {
+            this.nodes = nodes;
+            this.prefixDistance = prefixDistance;
+        }
+
+        int distance() {
+            return prefixDistance[prefixDistance.length - 1];
+        }
+
+        @Override
+        public int compareTo(Path other) {
+            int byDistance = Integer.compare(distance(), other.distance());
+            return byDistance != 0 ? byDistance : Arrays.compare(nodes, other.nodes);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Path && Arrays.equals(nodes, ((Path) other).nodes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(nodes);
+        }
+    }
+
+    // Constructor for the paths between two dense node indices
+    public KShortestPaths(CsrGraph graph, int source, int target, int parallelism) {
+        this.graph = graph;
+        this.source = source;
+        this.target = target;
+        this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        this.searches = ThreadLocal.withInitial(() -> new SpurSearch(graph));
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!started) {
+            started = true;
+            SpurSearch search = searches.get();
+            search.prepare();
+            Path shortest = search.run(source, target, null, 0);
+            if (shortest != null) {
+                seen.add(shortest);
+                candidates.add(shortest);
+            }
+        }
+        return !candidates.isEmpty();
+    }
+
+    // Method to get the next shortest path (dense indices from source to target)
+    @Override
+    public int[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more paths from " + source + " to " + target);
+        }
+        Path path = candidates.poll();
+        found.add(path);
+        lastDistance = path.distance();
+        addSpurCandidates(path);
+        return path.nodes.clone();
+    }
+
+    // Length of the path returned by the last call to next()
+    public int lastDistance() {
+        return lastDistance;
+    }
+
+    // Runs one spur search per node of the last path and queues the new candidates
+    private void addSpurCandidates(Path last) {
+        int spurNodes = last.nodes.length - 1;
+        Path[] spurResults = new Path[spurNodes];
+        if (pool != null && spurNodes >= PARALLEL_SPUR_NODES) {
+            pool.submit(() -> IntStream.range(0, spurNodes).parallel().forEach(i -> spurResults[i] = spurPath(last, i))).join();
+        } else {
+            for (int i = 0; i < spurNodes; i++) {
+                spurResults[i] = spurPath(last, i);
+            }
+        }
+        for (Path candidate : spurResults) {
+            if (candidate != null && seen.add(candidate)) {
+                candidates.add(candidate);
+            }
+        }
+    }
+
+    // Root path last[0 .. i] joined with the shortest spur path from last[i] that avoids the bans, or null if there is none
+    private Path spurPath(Path last, int i) {
+        SpurSearch search = searches.get();
+        search.prepare();
+        int[] root = last.nodes;
+        for (int r = 0; r < i; r++) {
+            search.banNode(root[r]);
+        }
+        for (Path path : found) {
+            if (path.nodes.length > i + 1 && Arrays.equals(path.nodes, 0, i + 1, root, 0, i + 1)) {
+                search.banEdge(path.nodes[i + 1]);
+            }
+        }
+        return search.run(root[i], target, last, i);
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /*
+    * Dijkstra workspace of one thread for the spur searches: banned nodes and banned first edges are marked with the number of
+    * the current search (a stamp), so forgetting the bans of the previous search costs nothing.
+    * */
+    private static final class SpurSearch {
+        private final CsrGraph graph;
+        private final int[] distance;
+        private final int[] parent;
+        private final IndexedMinHeap heap;
+        private final int[] touched;
+        private int touchedCount;
+        private final int[] bannedNode;
+        private final int[] bannedEdge;
+        private int stamp;
+
+        SpurSearch(CsrGraph graph) {
+            this.graph = graph;
+            int numNodes = graph.nodeCount();
+            distance = new int[numNodes];
+            parent = new int[numNodes];
+            heap = new IndexedMinHeap(numNodes);
+            touched = new int[numNodes];
+            bannedNode = new int[numNodes];
+            bannedEdge = new int[numNodes];
+            Arrays.fill(distance, Integer.MAX_VALUE);
+        }
+
+        // Starts a new set of bans
+        void prepare() {
+            stamp++;
+        }
+
+        void banNode(int node) {
+            bannedNode[node] = stamp;
+        }
+
+        // Bans the edge from the spur node to node
+        void banEdge(int node) {
+            bannedEdge[node] = stamp;
+        }
+
+        // Shortest path spur ~> target avoiding the bans, prefixed with root.nodes[0 .. rootEnd) (root may be null)
+        Path run(int spur, int target, Path root, int rootEnd) {
+            clear();
+            distance[spur] = 0;
+            parent[spur] = -1;
+            touched[touchedCount++] = spur;
+            heap.insert(spur, 0);
+            int[] offsets = graph.offsets;
+            int[] targets = graph.targets;
+            int[] weights = graph.weights;
+            while (!heap.isEmpty()) {
+                int currentNode = heap.pollMin();
+                if (currentNode == target) {
+                    break;
+                }
+                int currentDistance = distance[currentNode];
+                for (int e = offsets[currentNode]; e < offsets[currentNode + 1]; e++) {
+                    int adjacentNode = targets[e];
+                    if (bannedNode[adjacentNode] == stamp || (currentNode == spur && bannedEdge[adjacentNode] == stamp)) {
+                        continue;
+                    }
+                    int newDistance = currentDistance + weights[e];
+                    if (newDistance < distance[adjacentNode]) {
+                        if (distance[adjacentNode] == Integer.MAX_VALUE) {
+                            touched[touchedCount++] = adjacentNode;
+                        }
+                        distance[adjacentNode] = newDistance;
+                        parent[adjacentNode] = currentNode;
+                        heap.insertOrDecrease(adjacentNode, newDistance);
+                    }
+                }
+            }
+            if (distance[target] == Integer.MAX_VALUE) {
+                return null;
+            }
+
+            // Root path followed by the spur path
+            int spurLength = 0;
+            for (int node = target; node >= 0; node = parent[node]) {
+                spurLength++;
+            }
+            int[] nodes = new int[rootEnd + spurLength];
+            int[] prefixDistance = new int[nodes.length];
+            int offset = rootEnd == 0 ? 0 : root.prefixDistance[rootEnd];
+            for (int node = target, k = nodes.length - 1; node >= 0; node = parent[node], k--) {
+                nodes[k] = node;
+                prefixDistance[k] = offset + distance[node];
+            }
+            if (rootEnd > 0) {
+                System.arraycopy(root.nodes, 0, nodes, 0, rootEnd);
+                System.arraycopy(root.prefixDistance, 0, prefixDistance, 0, rootEnd);
+            }
+            return new Path(nodes, prefixDistance);
+        }
+
+        private void clear() {
+            for (int i = 0; i < touchedCount; i++) {
+                distance[touched[i]] = Integer.MAX_VALUE;
+            }
+            touchedCount = 0;
+            heap.clear();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Path to the dataset and number of routes per query
+        String filePath = args.length > 0 ? args[0] : "reachability.txt";
+        int k = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        CsrGraph graph = GraphReader.loadGraph(filePath);
+        int numNodes = graph.nodeCount();
+        int source = 0;
+        int target = numNodes - 1;
+
+        // Sequential and parallel runs must list the same routes
+        int processors = Runtime.getRuntime().availableProcessors();
+        List<int[]> sequential = new ArrayList<>();
+        long start = System.nanoTime();
+        try (KShortestPaths paths = new KShortestPaths(graph, source, target, 1)) {
+            while (sequential.size() < k && paths.hasNext()) {
+                int[] path = paths.next();
+                sequential.add(path);
+                int[] ids = new int[path.length];
+                for (int i = 0; i < path.length; i++) {
+                    ids[i] = graph.nodeId(path[i]);
+                }
+                System.out.println("Route " + sequential.size() + " (" + paths.lastDistance() + "): " + Arrays.toString(ids));
+            }
+        }
+        double sequentialMillis = (System.nanoTime() - start) / 1e6;
+
+        start = System.nanoTime();
+        boolean same = true;
+        try (KShortestPaths paths = new KShortestPaths(graph, source, target, processors)) {
+            for (int[] expected : sequential) {
+                same &= paths.hasNext() && Arrays.equals(paths.next(), expected);
+            }
+        }
+        double parallelMillis = (System.nanoTime() - start) / 1e6;
+        System.out.printf("%d routes: %.1f ms sequential, %.1f ms with %d threads, same routes: %b%n",
+                sequential.size(), sequentialMillis, parallelMillis, processors, same);
+    }
+    /*
+     * Time Complexity: O(L * (V + E) * log V) per route, L = length of the previous route (spread over P threads)
+     * Space Complexity: O(V) per thread + the routes found and queued
+     * */
+}
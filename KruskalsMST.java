@@ -8,42 +8,59 @@
 *       4. Repeat steps 2 and 3 until all nodes are connected.
 *
 * This approach ensures to build the cheapest possible network by greedily picking the best edges first.
+*
+* EDGE ORDER:
+*       Every edge is one long, (weight << 32) | edge index, so sorting the longs (Arrays.parallelSort, no Edge objects)
+*       orders the edges by weight and breaks ties by edge index. With that total order the minimum spanning forest is
+*       unique, and every variant below returns the same edges. The endpoints are read back from the CSR arrays.
+*
+* PARALLEL BORUVKA (boruvkaMST):
+*       Rounds of: every component picks its lightest outgoing edge (compare-and-set minimum of the edge keys in an
+*       AtomicLongArray, edges scanned in parallel), the components are merged along those edges, and the graph is
+*       contracted: merged components are renumbered 0 .. C - 1, edges inside one component are dropped and the others are
+*       relabelled with component IDs (in parallel). The number of components at least halves per round, so there are
+*       O(log V) rounds over shrinking per-component arrays, and all work on the edges is spread over the cores.
+*       Within a round, ties are broken by position in the edge array, which keeps the edge index order.
+*
+* Edges are treated as undirected (a connection in either direction joins two cities), and disconnected inputs give a
+* spanning forest. The union-find is iterative with path halving and union by rank.
 * */
 
 import java.util.*;
-
-// Class to represent a subset for union-find
-class Subset {
-    int parent;
-    int rank;
-
-    // Constructor for Subset class
-    public Subset(int parent, int rank) {
-        this.parent = parent;
-        this.rank = rank;
-    }
-}
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 public class KruskalsMST extends GraphReader {
 
+    // Edges per parallel task in the Boruvka rounds
+    static final int CHUNK = 1 << 14;
+
     // Constructor that accepts a file path
     public KruskalsMST(String filePath) {
         super(filePath);
     }
 
-    // Kruskal's algorithm to find Minimum Spanning Tree
+    // Constructor that accepts an already loaded graph
+    public KruskalsMST(CsrGraph graph) {
+        super(graph);
+    }
+
+    // Kruskal's algorithm to find Minimum Spanning Tree (a forest when the graph is disconnected), edges in weight order
     public List<Edge> findMST() {
         List<Edge> mst = new ArrayList<>();
-        List<Edge> edges = getAllEdges();
+        int numNodes = csr.nodeCount();
+        int[] source = edgeSources(csr);
 
-        // Find the maximum node ID to determine array size
-        int maxNodeId = Integer.MIN_VALUE;
-        for (Edge edge : edges) {
-            maxNodeId = Math.max(maxNodeId, Math.max(edge.fromNodeId, edge.toNodeId));
-        }
+        // Sort all edges by (weight, edge index) in one primitive array
+        long[] keys = new long[csr.edgeCount()];
+        Arrays.parallelSetAll(keys, e -> edgeKey(csr.weights[e], e));
+        Arrays.parallelSort(keys);
 
-        int[] parent = new int[maxNodeId+1];
-        int[] rank = new int[maxNodeId+1];
+        // Union-find arrays are indexed by dense node index, so their size is the number of nodes
+        int[] parent = new int[numNodes];
+        int[] rank = new int[numNodes];
 
         // Initialize parent and rank arrays
         for (int i = 0; i < parent.length; i++) {
@@ -51,33 +68,169 @@ public class KruskalsMST extends GraphReader {
             rank[i] = 0;
         }
 
-        for (Edge edge : edges) {
-            int x = find(parent, edge.fromNodeId);
-            int y = find(parent, edge.toNodeId);
+        for (int i = 0; i < keys.length && mst.size() < numNodes - 1; i++) {
+            int e = (int) keys[i];
 
             // If including this edge does not cause a cycle, add it to the MST
-            if (x != y) {
-                mst.add(edge);
-                union(parent, rank, x, y);
+            if (union(parent, rank, source[e], csr.targets[e])) {
+                mst.add(new Edge(csr.nodeIds[source[e]], csr.nodeIds[csr.targets[e]], csr.weights[e]));
             }
         }
 
         return mst;
     }
 
-    // Method to find the subset in which the element belongs (Path Compression)
-    private int find(int[] parent, int i) {
-        if (parent[i] != i) {
-            parent[i] = find(parent, parent[i]);
+    // Boruvka's algorithm on up to parallelism threads, same forest as findMST (in a different order)
+    public List<Edge> boruvkaMST(int parallelism) {
+        List<Edge> mst = new ArrayList<>();
+        int numNodes = csr.nodeCount();
+        int[] source = edgeSources(csr);
+
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try {
+            // Edges still joining two components: their endpoints as component IDs and their original edge index, kept in
+            // edge index order so that ties can be broken by position. At first every node is its own component.
+            int[] edgeIndex = IntStream.range(0, csr.edgeCount()).toArray();
+            int[] from = source;
+            int[] to = csr.targets;
+            int numComponents = numNodes;
+            // Lightest edge key leaving each component, Long.MAX_VALUE when there is none
+            AtomicLongArray lightest = new AtomicLongArray(numNodes);
+            int[] parent = new int[numNodes];
+            int[] rank = new int[numNodes];
+            int[] label = new int[numNodes];
+
+            while (edgeIndex.length > 0) {
+                int[] edges = edgeIndex;
+                int[] u = from;
+                int[] v = to;
+                forEach(pool, numComponents, c -> lightest.set(c, Long.MAX_VALUE));
+                forEach(pool, (edges.length + CHUNK - 1) / CHUNK, chunk -> {
+                    for (int i = chunk * CHUNK; i < Math.min(edges.length, (chunk + 1) * CHUNK); i++) {
+                        if (u[i] != v[i]) { // Self-loops (first round only) never join two components
+                            long key = edgeKey(csr.weights[edges[i]], i);
+                            lower(lightest, u[i], key);
+                            lower(lightest, v[i], key);
+                        }
+                    }
+                });
+
+                // Merge along the chosen edges; an edge chosen by both of its components is added once
+                for (int c = 0; c < numComponents; c++) {
+                    parent[c] = c;
+                    rank[c] = 0;
+                }
+                for (int c = 0; c < numComponents; c++) {
+                    long key = lightest.get(c);
+                    if (key != Long.MAX_VALUE) {
+                        int i = (int) key;
+                        if (union(parent, rank, u[i], v[i])) {
+                            int e = edges[i];
+                            mst.add(new Edge(csr.nodeIds[source[e]], csr.nodeIds[csr.targets[e]], csr.weights[e]));
+                        }
+                    }
+                }
+
+                // Contract: number the merged components 0 .. C' - 1, then keep and relabel the edges between two of them
+                int merged = 0;
+                for (int c = 0; c < numComponents; c++) {
+                    if (find(parent, c) == c) {
+                        label[c] = merged++;
+                    }
+                }
+                forEach(pool, numComponents, c -> {
+                    if (parent[c] != c) {
+                        label[c] = label[root(parent, c)];
+                    }
+                });
+                // Count the kept edges per chunk, then every chunk writes from its prefix sum on
+                int numChunks = (edges.length + CHUNK - 1) / CHUNK;
+                int[] chunkStart = new int[numChunks + 1];
+                forEach(pool, numChunks, chunk -> {
+                    int count = 0;
+                    for (int i = chunk * CHUNK; i < Math.min(edges.length, (chunk + 1) * CHUNK); i++) {
+                        count += label[u[i]] != label[v[i]] ? 1 : 0;
+                    }
+                    chunkStart[chunk + 1] = count;
+                });
+                for (int chunk = 0; chunk < numChunks; chunk++) {
+                    chunkStart[chunk + 1] += chunkStart[chunk];
+                }
+                int[] keptEdges = new int[chunkStart[numChunks]];
+                int[] keptFrom = new int[keptEdges.length];
+                int[] keptTo = new int[keptEdges.length];
+                forEach(pool, numChunks, chunk -> {
+                    int j = chunkStart[chunk];
+                    for (int i = chunk * CHUNK; i < Math.min(edges.length, (chunk + 1) * CHUNK); i++) {
+                        int a = label[u[i]];
+                        int b = label[v[i]];
+                        if (a != b) {
+                            keptEdges[j] = edges[i];
+                            keptFrom[j] = a;
+                            keptTo[j] = b;
+                            j++;
+                        }
+                    }
+                });
+                edgeIndex = keptEdges;
+                from = keptFrom;
+                to = keptTo;
+                numComponents = merged;
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+        return mst;
+    }
+
+    // Sort key of an edge: weight in the high half, edge index (unique, non-negative) in the low half
+    static long edgeKey(int weight, int edge) {
+        return ((long) weight << 32) | edge;
+    }
+
+    // Source node of every edge index
+    static int[] edgeSources(CsrGraph graph) {
+        int[] source = new int[graph.edgeCount()];
+        IntStream.range(0, graph.nodeCount()).parallel()
+                .forEach(u -> Arrays.fill(source, graph.offsets[u], graph.offsets[u + 1], u));
+        return source;
+    }
+
+    // Method to lower lightest[i] to key if key is smaller, safe under concurrent calls
+    private static void lower(AtomicLongArray lightest, int i, long key) {
+        long current = lightest.get(i);
+        while (key < current && !lightest.compareAndSet(i, current, key)) {
+            current = lightest.get(i);
+        }
+    }
+
+    // Method to find the subset in which the element belongs (Path Halving, iterative)
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    // Method to find the root without modifying the union-find, so threads can share it
+    private static int root(int[] parent, int i) {
+        while (parent[i] != i) {
+            i = parent[i];
         }
-        return parent[i];
+        return i;
     }
 
-    // Method to perform union of two subsets (Union by Rank)
-    private void union(int[] parent, int[] rank, int x, int y) {
+    // Method to perform union of two subsets (Union by Rank), returns false if they already were one subset
+    private static boolean union(int[] parent, int[] rank, int x, int y) {
         int xRoot = find(parent, x);
         int yRoot = find(parent, y);
 
+        if (xRoot == yRoot) {
+            return false;
+        }
         if (rank[xRoot] < rank[yRoot]) {
             parent[xRoot] = yRoot;
         } else if (rank[xRoot] > rank[yRoot]) {
@@ -86,20 +239,33 @@ public class KruskalsMST extends GraphReader {
             parent[yRoot] = xRoot;
             rank[xRoot]++;
         }
+        return true;
     }
 
-    // Method to get all edges from the graph
-    private List<Edge> getAllEdges() {
-        List<Edge> edges = new ArrayList<>();
-        for (List<Edge> edgeList : adjacencyList.values()) {
-            edges.addAll(edgeList);
+    // Runs body(0 .. count - 1), on the pool when there is one
+    private static void forEach(ForkJoinPool pool, int count, IntConsumer body) {
+        if (pool == null) {
+            for (int i = 0; i < count; i++) {
+                body.accept(i);
+            }
+        } else {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(body)).join();
+        }
+    }
+
+    private static long totalWeight(List<Edge> edges) {
+        long total = 0;
+        for (Edge edge : edges) {
+            total += edge.weight;
         }
-        return edges;
+        return total;
     }
 
     public static void main(String[] args) {
-        // Path to the dataset file
-        String filePath = "/Users/revanth/Desktop/PSA/PSAFinalProject/src/reachability1.txt";
+        // Path to the dataset file, and the size of an extra random graph for the benchmark
+        String filePath = args.length > 0 ? args[0] : "/Users/revanth/Desktop/PSA/PSAFinalProject/src/reachability1.txt";
+        int randomNodes = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+        int randomDegree = args.length > 2 ? Integer.parseInt(args[2]) : 8;
 
         // Create a new KruskalMST object
         KruskalsMST graph = new KruskalsMST(filePath);
@@ -115,9 +281,48 @@ public class KruskalsMST extends GraphReader {
             System.out.println(edge.fromNodeId + " -> " + edge.toNodeId + ", Weight: " + edge.weight);
         }
         System.out.println("\n Number of edges: " + count);
+
+        // Benchmark on the dataset and on a random sparse graph
+        benchmark(filePath, graph);
+        Random random = new Random(25);
+        EdgeList edges = new EdgeList();
+        for (long i = 0; i < (long) randomNodes * randomDegree; i++) {
+            edges.add(random.nextInt(randomNodes), random.nextInt(randomNodes), random.nextInt(1000));
+        }
+        benchmark("random graph", new KruskalsMST(CsrGraph.fromEdges(edges)));
+    }
+
+    // Times sorted Kruskal and Boruvka on 1 and on all processors (best of a few runs) and checks they agree
+    private static void benchmark(String name, KruskalsMST graph) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int runs = graph.csr.edgeCount() > 1000000 ? 3 : 20;
+        long kruskalNanos = Long.MAX_VALUE;
+        long sequentialNanos = Long.MAX_VALUE;
+        long parallelNanos = Long.MAX_VALUE;
+        List<Edge> kruskal = null;
+        List<Edge> sequential = null;
+        List<Edge> parallel = null;
+        for (int run = 0; run < runs; run++) {
+            long start = System.nanoTime();
+            kruskal = graph.findMST();
+            kruskalNanos = Math.min(kruskalNanos, System.nanoTime() - start);
+            start = System.nanoTime();
+            sequential = graph.boruvkaMST(1);
+            sequentialNanos = Math.min(sequentialNanos, System.nanoTime() - start);
+            start = System.nanoTime();
+            parallel = graph.boruvkaMST(processors);
+            parallelNanos = Math.min(parallelNanos, System.nanoTime() - start);
+        }
+        System.out.printf("%s: %d nodes, %d edges, forest of %d edges, total weight %d%n", name, graph.csr.nodeCount(),
+                graph.csr.edgeCount(), kruskal.size(), totalWeight(kruskal));
+        System.out.printf("  Kruskal (parallel sort):    %8.1f ms%n", kruskalNanos / 1e6);
+        System.out.printf("  Boruvka, 1 thread:          %8.1f ms, same weight: %b%n", sequentialNanos / 1e6,
+                totalWeight(sequential) == totalWeight(kruskal) && sequential.size() == kruskal.size());
+        System.out.printf("  Boruvka, %2d threads:        %8.1f ms, same weight: %b%n", processors, parallelNanos / 1e6,
+                totalWeight(parallel) == totalWeight(kruskal) && parallel.size() == kruskal.size());
     }
     /*
-    * Time Complexity: O(E log E)
+    * Time Complexity: O(E log E) for Kruskal (sort on all cores), O((E + V) log V / P) for Boruvka on P threads
     * Space Complexity: O(E + V)
     * */
 }
@@ -0,0 +1,406 @@
+/*
+* **** LANDMARK DISTANCE TABLES (ALT) ****
+* A small set of landmark nodes L is chosen offline and the distances d(L, v) and d(v, L) of every node are stored.
+* By the triangle inequality, for any nodes v and t:
+*       d(L, t) <= d(L, v) + d(v, t)    -->    d(v, t) >= d(L, t) - d(L, v)
+*       d(v, L) <= d(v, t) + d(t, L)    -->    d(v, t) >= d(v, L) - d(t, L)
+* The largest of these bounds over the landmarks is a lower bound on d(v, t) that A* uses to steer towards t (see AltSearch).
+* The same inequalities also prove unreachability: if L reaches v but not t, or t reaches L but v does not, v cannot reach t.
+*
+* LANDMARK SELECTION:
+*       FARTHEST:    each new landmark is the node farthest (to and from) from the landmarks chosen so far, the first one is the
+*                    node farthest from a random start.
+*       AVOID:       (Goldberg and Werneck) grow the shortest path tree of a random root and weight every node by how much the
+*                    current bound underestimates its distance from the root. Sum the weights per subtree, skipping subtrees
+*                    that already hold a landmark, and walk from the root into the heaviest subtree down to a leaf: that leaf is
+*                    the next landmark, placed where the current landmarks help least.
+*       BETWEENNESS: the nodes with the highest weighted betweenness (sampled, see NetworkAnalysis), i.e. the nodes most
+*                    shortest paths go through.
+*
+* The tables take 2 * k * V ints, stored node-major (the k distances of a node are next to each other), and can be saved with
+* the graph fingerprint so they are never used with a different graph. An index is immutable and can be shared by threads.
+*
+* Usage: java LandmarkIndex [graph file] [landmark count]
+* */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+public class LandmarkIndex {
+
+    // How the landmarks are chosen
+    public enum Selection {
+        FARTHEST, AVOID, BETWEENNESS
+    }
+
+    static final int MAGIC = 0x4C525441; // "ATRL" read as a little-endian int
+    static final int VERSION = 1;
+    // Number of sampled sources used to rank the nodes for BETWEENNESS selection
+    static final int BETWEENNESS_SAMPLES = 256;
+
+    final long graphFingerprint;
+    final Selection selection;
+    final int[] landmarks;
+    // fromLandmark[v * k + i] = d(landmark i, v), toLandmark[v * k + i] = d(v, landmark i), Integer.MAX_VALUE if unreachable
+    final int[] fromLandmark;
+    final int[] toLandmark;
+
+    LandmarkIndex(long graphFingerprint, Selection selection, int[] landmarks, int[] fromLandmark, int[] toLandmark) {
+        this.graphFingerprint = graphFingerprint;
+        this.selection = selection;
+        this.landmarks = landmarks;
+        this.fromLandmark = fromLandmark;
+        this.toLandmark = toLandmark;
+    }
+
+    // Method to choose `count` landmarks and compute their distance tables
+    public static LandmarkIndex build(CsrGraph graph, int count, Selection selection, long seed) {
+        int numNodes = graph.nodeCount();
+        int k = Math.max(0, Math.min(count, numNodes));
+        int[] landmarks = new int[k];
+        int[] fromLandmark = new int[numNodes * k];
+        int[] toLandmark = new int[numNodes * k];
+        LandmarkIndex index = new LandmarkIndex(graph.fingerprint(), selection, landmarks, fromLandmark, toLandmark);
+        if (k == 0) {
+            return index;
+        }
+
+        DijkstraSearch forward = new DijkstraSearch(graph);
+        DijkstraSearch backward = new DijkstraSearch(graph.reverse());
+        Random random = new Random(seed);
+        int[] ranked = selection == Selection.BETWEENNESS ? rankByBetweenness(graph, seed) : null;
+        for (int i = 0; i < k; i++) {
+            int landmark;
+            if (selection == Selection.BETWEENNESS) {
+                landmark = ranked[i];
+            } else if (i == 0) {
+                forward.run(random.nextInt(numNodes));
+                landmark = farthestNode(index, 0, forward);
+            } else if (selection == Selection.AVOID) {
+                landmark = index.avoidNode(i, forward, random.nextInt(numNodes));
+            } else {
+                landmark = farthestNode(index, i, null);
+            }
+            landmarks[i] = landmark;
+            forward.run(landmark);
+            backward.run(landmark);
+            for (int v = 0; v < numNodes; v++) {
+                fromLandmark[v * k + i] = forward.distance(v);
+                toLandmark[v * k + i] = backward.distance(v);
+            }
+        }
+        return index;
+    }
+
+    // Node farthest from the first `used` landmarks (or, with `search`, from its source), unreachable nodes count as farthest
+    private static int farthestNode(LandmarkIndex index, int used, DijkstraSearch search) {
+        int k = index.landmarks.length;
+        int numNodes = index.fromLandmark.length / k;
+        int best = -1;
+        long bestDistance = -1;
+        for (int v = 0; v < numNodes; v++) {
+            long nearest;
+            if (search != null) {
+                nearest = search.distance(v) == Integer.MAX_VALUE ? Long.MAX_VALUE : search.distance(v);
+            } else {
+                nearest = Long.MAX_VALUE;
+                for (int i = 0; i < used; i++) {
+                    nearest = Math.min(nearest, (long) index.fromLandmark[v * k + i] + index.toLandmark[v * k + i]);
+                }
+            }
+            if (nearest > bestDistance && !index.isLandmark(v, used)) {
+                bestDistance = nearest;
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    // Next landmark by the avoid heuristic, grown from the shortest path tree of `root`
+    private int avoidNode(int used, DijkstraSearch search, int root) {
+        int numNodes = fromLandmark.length / landmarks.length;
+        search.run(root);
+
+        // Children lists of the shortest path tree (count, then fill)
+        int[] childOffsets = new int[numNodes + 1];
+        for (int v = 0; v < numNodes; v++) {
+            if (v != root && search.distance(v) != Integer.MAX_VALUE) {
+                childOffsets[search.parent(v) + 1]++;
+            }
+        }
+        for (int v = 0; v < numNodes; v++) {
+            childOffsets[v + 1] += childOffsets[v];
+        }
+        int[] children = new int[childOffsets[numNodes]];
+        int[] cursor = Arrays.copyOf(childOffsets, numNodes);
+        for (int v = 0; v < numNodes; v++) {
+            if (v != root && search.distance(v) != Integer.MAX_VALUE) {
+                children[cursor[search.parent(v)]++] = v;
+            }
+        }
+
+        // Subtree sizes in post-order (iterative, the tree can be deep); a subtree holding a landmark weighs 0
+        long[] size = new long[numNodes];
+        boolean[] hasLandmark = new boolean[numNodes];
+        int[] stack = new int[numNodes];
+        int[] next = new int[numNodes];
+        int top = 0;
+        stack[top++] = root;
+        next[root] = childOffsets[root];
+        while (top > 0) {
+            int v = stack[top - 1];
+            if (next[v] < childOffsets[v + 1]) {
+                int child = children[next[v]++];
+                next[child] = childOffsets[child];
+                stack[top++] = child;
+                continue;
+            }
+            top--;
+            hasLandmark[v] |= isLandmark(v, used);
+            if (!hasLandmark[v]) {
+                size[v] += search.distance(v) - lowerBound(root, v, used);
+            }
+            if (top > 0) {
+                int parent = stack[top - 1];
+                hasLandmark[parent] |= hasLandmark[v];
+                size[parent] += size[v];
+            }
+        }
+        for (int v = 0; v < numNodes; v++) {
+            if (hasLandmark[v]) {
+                size[v] = 0;
+            }
+        }
+
+        // Walk into the heaviest subtree down to a leaf
+        int v = root;
+        while (true) {
+            int heaviest = -1;
+            for (int c = childOffsets[v]; c < childOffsets[v + 1]; c++) {
+                if (size[children[c]] > 0 && (heaviest < 0 || size[children[c]] > size[heaviest])) {
+                    heaviest = children[c];
+                }
+            }
+            if (heaviest < 0) {
+                break;
+            }
+            v = heaviest;
+        }
+        return isLandmark(v, used) ? farthestNode(this, used, null) : v;
+    }
+
+    // Dense indices ordered by sampled weighted betweenness, highest first
+    private static int[] rankByBetweenness(CsrGraph graph, long seed) {
+        NetworkAnalysis analysis = new NetworkAnalysis(graph);
+        int[] pivots = analysis.samplePivots(seed);
+        int[] sources = Arrays.copyOf(pivots, Math.min(BETWEENNESS_SAMPLES, pivots.length));
+        double[] scores = analysis.sumDependencies(sources, false, true, Runtime.getRuntime().availableProcessors());
+        Integer[] nodes = new Integer[scores.length];
+        for (int v = 0; v < nodes.length; v++) {
+            nodes[v] = v;
+        }
+        Arrays.sort(nodes, (a, b) -> Double.compare(scores[b], scores[a]));
+        int[] ranked = new int[nodes.length];
+        for (int i = 0; i < ranked.length; i++) {
+            ranked[i] = nodes[i];
+        }
+        return ranked;
+    }
+
+    private boolean isLandmark(int v, int used) {
+        for (int i = 0; i < used; i++) {
+            if (landmarks[i] == v) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Lower bound on d(v, t) from the first `used` landmarks (Integer.MAX_VALUE if they prove t unreachable from v)
+    int lowerBound(int v, int t, int used) {
+        int k = landmarks.length;
+        int best = 0;
+        for (int i = 0; i < used; i++) {
+            int bound = bound(v * k + i, t * k + i);
+            if (bound > best) {
+                best = bound;
+            }
+        }
+        return best;
+    }
+
+    // Lower bound on d(v, t) from the given landmarks only
+    int lowerBound(int v, int t, int[] active, int activeCount) {
+        int k = landmarks.length;
+        int best = 0;
+        for (int a = 0; a < activeCount; a++) {
+            int bound = bound(v * k + active[a], t * k + active[a]);
+            if (bound > best) {
+                best = bound;
+            }
+        }
+        return best;
+    }
+
+    // Lower bound on d(v, t) from landmark i alone
+    int landmarkBound(int i, int v, int t) {
+        int k = landmarks.length;
+        return bound(v * k + i, t * k + i);
+    }
+
+    // Bound from one landmark, given the table slots of v and t
+    private int bound(int vSlot, int tSlot) {
+        int best = 0;
+        int fromV = fromLandmark[vSlot];
+        int fromT = fromLandmark[tSlot];
+        if (fromV != Integer.MAX_VALUE) {
+            if (fromT == Integer.MAX_VALUE) {
+                return Integer.MAX_VALUE;
+            }
+            best = fromT - fromV;
+        }
+        int toV = toLandmark[vSlot];
+        int toT = toLandmark[tSlot];
+        if (toT != Integer.MAX_VALUE) {
+            if (toV == Integer.MAX_VALUE) {
+                return Integer.MAX_VALUE;
+            }
+            best = Math.max(best, toV - toT);
+        }
+        return best;
+    }
+
+    // Number of landmarks
+    public int landmarkCount() {
+        return landmarks.length;
+    }
+
+    // Whether the tables were built for this graph
+    public boolean matches(CsrGraph graph) {
+        return graph.fingerprint() == graphFingerprint && graph.nodeCount() * landmarks.length == fromLandmark.length;
+    }
+
+    // Method to save the landmarks and both distance tables with a trailing CRC32
+    public void save(String filePath) throws IOException {
+        CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(Paths.get(filePath))), new CRC32());
+        try (DataOutputStream out = new DataOutputStream(checked)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(graphFingerprint);
+            out.writeInt(fromLandmark.length / Math.max(landmarks.length, 1));
+            out.writeInt(landmarks.length);
+            out.writeInt(selection.ordinal());
+            writeInts(out, landmarks);
+            writeInts(out, fromLandmark);
+            writeInts(out, toLandmark);
+            out.writeLong(checked.getChecksum().getValue());
+        }
+    }
+
+    // Method to load saved landmark tables, refusing files built for another graph
+    public static LandmarkIndex load(String filePath, CsrGraph graph) throws IOException {
+        CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(Files.newInputStream(Paths.get(filePath))), new CRC32());
+        try (DataInputStream in = new DataInputStream(checked)) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a landmark file: " + filePath);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported landmark file version " + version + ": " + filePath);
+            }
+            long fingerprint = in.readLong();
+            int numNodes = in.readInt();
+            int k = in.readInt();
+            int selection = in.readInt();
+            if (fingerprint != graph.fingerprint() || (k > 0 && numNodes != graph.nodeCount())) {
+                throw new IOException("Landmarks were computed for a different graph: " + filePath);
+            }
+            if (k < 0 || k > graph.nodeCount() || selection < 0 || selection >= Selection.values().length) {
+                throw new IOException("Corrupt landmark file header: " + filePath);
+            }
+            int[] landmarks = readInts(in, k);
+            int[] fromLandmark = readInts(in, k * graph.nodeCount());
+            int[] toLandmark = readInts(in, k * graph.nodeCount());
+            long expected = checked.getChecksum().getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Landmark file checksum mismatch: " + filePath);
+            }
+            return new LandmarkIndex(fingerprint, Selection.values()[selection], landmarks, fromLandmark, toLandmark);
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static int[] readInts(DataInputStream in, int count) throws IOException {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Path to the dataset and number of landmarks
+        String filePath = args.length > 0 ? args[0] : "reachability.txt";
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+
+        CsrGraph graph = GraphReader.loadGraph(filePath);
+        int numNodes = graph.nodeCount();
+        int queries = 1000;
+        int[] sources = new int[queries];
+        int[] destinations = new int[queries];
+        Random random = new Random(12);
+        for (int i = 0; i < queries; i++) {
+            sources[i] = random.nextInt(numNodes);
+            destinations[i] = random.nextInt(numNodes);
+        }
+
+        // Plain Dijkstra as the reference for distances and search space
+        DijkstraSearch dijkstra = new DijkstraSearch(graph);
+        int[] expected = new int[queries];
+        long dijkstraSettled = 0;
+        for (int i = 0; i < queries; i++) {
+            expected[i] = dijkstra.runTo(sources[i], destinations[i]);
+            dijkstraSettled += dijkstra.settledCount();
+        }
+        System.out.printf("Dijkstra: %.1f nodes settled per query%n", (double) dijkstraSettled / queries);
+
+        for (Selection selection : Selection.values()) {
+            long start = System.nanoTime();
+            LandmarkIndex index = build(graph, count, selection, 1);
+            double buildMillis = (System.nanoTime() - start) / 1e6;
+            String tablePath = filePath + "." + selection.name().toLowerCase() + ".alt";
+            index.save(tablePath);
+            AltSearch search = new AltSearch(graph, load(tablePath, graph));
+
+            int mismatches = 0;
+            long settled = 0;
+            for (int i = 0; i < queries; i++) {
+                if (search.distance(sources[i], destinations[i]) != expected[i]) {
+                    mismatches++;
+                }
+                settled += search.settledCount();
+            }
+            System.out.printf("ALT %-11s %d landmarks in %.1f ms: %.1f nodes settled per query (%.1f%% of Dijkstra), %d mismatches%n",
+                    selection, index.landmarkCount(), buildMillis, (double) settled / queries, 100.0 * settled / dijkstraSettled, mismatches);
+        }
+    }
+    /*
+     * Time Complexity: O(k * (V + E) * log V) to build (plus the sampled betweenness for BETWEENNESS), O(k) per bound
+     * Space Complexity: O(k * V)
+     * */
+}
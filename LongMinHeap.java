@@ -0,0 +1,88 @@
+/*
+* **** PRIMITIVE BINARY MIN-HEAP OF LONGS ****
+* Replacement for PriorityQueue<...> on hot loops: entries are packed into a long (e.g. distance << 32 | node),
+* so the natural long ordering is the priority ordering and nothing is boxed or allocated per offer.
+* */
+
+import java.util.Arrays;
+
+class LongMinHeap {
+    private long[] heap;
+    private int size;
+
+    // Constructor with an initial capacity
+    public LongMinHeap(int capacity) {
+        this.heap = new long[Math.max(capacity, 1)];
+    }
+
+    // Packs a non-negative priority and an index into one heap entry
+    static long pack(int priority, int index) {
+        return ((long) priority << 32) | (index & 0xFFFFFFFFL);
+    }
+
+    // Priority part of a packed entry
+    static int priority(long entry) {
+        return (int) (entry >>> 32);
+    }
+
+    // Index part of a packed entry
+    static int index(long entry) {
+        return (int) entry;
+    }
+
+    // Method to add an entry
+    public void offer(long value) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        int i = size++;
+        // Sift up
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= value) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = value;
+    }
+
+    // Method to remove and return the smallest entry
+    public long poll() {
+        long min = heap[0];
+        long last = heap[--size];
+        int i = 0;
+        // Sift down
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (last <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return min;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+    /*
+     * Time Complexity: O(log n) for offer and poll
+     * Space Complexity: O(n)
+     * */
+}
@@ -0,0 +1,165 @@
+/*
+* **** MEMORY-MAPPED EDGE LIST LOADER ****
+* Reads a `FromNodeID ToNodeID Weight` edge list (same format as `reachability.txt`) without BufferedReader, String or regex:
+*       1. The file is memory-mapped with FileChannel.map, so the bytes are read straight from the page cache.
+*       2. Integers are parsed digit by digit from the ByteBuffer into an EdgeList (three growable int arrays).
+*       3. Lines starting with '#' and blank lines are skipped, columns may be separated by any mix of spaces and tabs,
+*          and weights are stored as Math.abs(weight) like the original reader.
+*
+* Files larger than 2 GB cannot be mapped in one piece, so the file is mapped in windows. A window always ends after the
+* last complete line it contains, and the next window starts at the beginning of the cut line.
+* */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public final class MappedEdgeListLoader {
+
+    // Largest region mapped at once
+    static final int MAX_WINDOW = 1 << 30;
+
+    private MappedEdgeListLoader() {
+    }
+
+    // Method to load an edge list file into a CSR graph
+    public static CsrGraph load(String filePath) throws IOException {
+        return CsrGraph.fromEdges(readEdges(filePath));
+    }
+
+    // Method to read all edges of a file
+    public static EdgeList readEdges(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            // Roughly 12 bytes per line in the reachability datasets
+            EdgeList edges = new EdgeList((int) Math.min(fileSize / 12 + 16, Integer.MAX_VALUE - 8));
+            readRange(channel, 0, fileSize, edges);
+            return edges;
+        }
+    }
+
+    // Method to parse the lines of [start, end) of a file into an edge list (start must be the beginning of a line)
+    static void readRange(FileChannel channel, long start, long end, EdgeList edges) throws IOException {
+        long position = start;
+        while (position < end) {
+            int length = (int) Math.min(MAX_WINDOW, end - position);
+            boolean lastWindow = position + length == end;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+            int limit = lastWindow ? length : lastLineEnd(buffer, length);
+            if (limit == 0) {
+                throw new IOException("Line longer than " + MAX_WINDOW + " bytes at offset " + position);
+            }
+            parseLines(buffer, 0, limit, edges);
+            position += limit;
+        }
+    }
+
+    // Position just after the last '\n' of buffer[0, length), or 0 if there is none
+    private static int lastLineEnd(ByteBuffer buffer, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /*
+    * Parses every line of buffer[from, to) and appends its edge to `edges`.
+    * The scan works on absolute positions only, so nothing is allocated apart from growing the EdgeList.
+    * */
+    static void parseLines(ByteBuffer buffer, int from, int to, EdgeList edges) {
+        int pos = from;
+        while (pos < to) {
+            // Skip leading blanks
+            while (pos < to && isBlank(buffer.get(pos))) {
+                pos++;
+            }
+            if (pos >= to) {
+                break;
+            }
+            byte first = buffer.get(pos);
+            if (first == '#' || first == '\n' || first == '\r') {
+                // Comment or empty line
+                pos = skipLine(buffer, pos, to);
+                continue;
+            }
+
+            // Parse the three columns
+            long fromNodeId = parseInt(buffer, pos, to);
+            pos = skipBlanks(buffer, (int) (fromNodeId >>> 32), to);
+            long toNodeId = parseInt(buffer, pos, to);
+            pos = skipBlanks(buffer, (int) (toNodeId >>> 32), to);
+            long weight = parseInt(buffer, pos, to);
+            pos = (int) (weight >>> 32);
+
+            edges.add((int) fromNodeId, (int) toNodeId, Math.abs((int) weight));
+
+            // Ignore anything after the third column
+            pos = skipLine(buffer, pos, to);
+        }
+    }
+
+    /*
+    * Parses a signed decimal int starting at pos.
+    * Returns (position after the number << 32) | (value & 0xFFFFFFFF), so the caller gets both without allocating.
+    * */
+    private static long parseInt(ByteBuffer buffer, int pos, int to) {
+        int start = pos;
+        boolean negative = false;
+        if (pos < to && (buffer.get(pos) == '-' || buffer.get(pos) == '+')) {
+            negative = buffer.get(pos) == '-';
+            pos++;
+        }
+        long value = 0;
+        int digitsStart = pos;
+        while (pos < to) {
+            int digit = buffer.get(pos) - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw new NumberFormatException("Number too large at byte " + start);
+            }
+            pos++;
+        }
+        if (pos == digitsStart) {
+            throw new NumberFormatException("Expected a number at byte " + start);
+        }
+        if (negative) {
+            value = -value;
+        }
+        if (value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Number too large at byte " + start);
+        }
+        return ((long) pos << 32) | (value & 0xFFFFFFFFL);
+    }
+
+    private static int skipBlanks(ByteBuffer buffer, int pos, int to) {
+        while (pos < to && isBlank(buffer.get(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    // Position just after the next '\n' (or `to`)
+    private static int skipLine(ByteBuffer buffer, int pos, int to) {
+        while (pos < to && buffer.get(pos) != '\n') {
+            pos++;
+        }
+        return pos + 1;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+    /*
+     * Time Complexity: O(n) --> n is the size of the file in bytes, every byte is looked at a constant number of times
+     * Space Complexity: O(E) --> three ints per edge, no per-line objects
+     * */
+}
@@ -19,6 +19,337 @@
 * */
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/*
+* Result of a sampled betweenness computation: the extrapolated score of every node and the half-width of its confidence interval.
+* */
+class BetweennessEstimate {
+    final int[] nodeIds;
+    final double[] scores;
+    final double[] errors;
+    final int samples;
+    final double confidence;
+
+    // Constructor from the sums (first V entries) and sums of squares (next V entries) of the sampled dependencies
+    BetweennessEstimate(int[] nodeIds, double[] sums, int samples, double confidence) {
+        if (!(confidence > 0 && confidence < 1)) {
+            throw new IllegalArgumentException("confidence must be between 0 and 1: " + confidence);
+        }
+        int numNodes = nodeIds.length;
+        this.nodeIds = nodeIds;
+        this.scores = new double[numNodes];
+        this.errors = new double[numNodes];
+        this.samples = samples;
+        this.confidence = confidence;
+
+        double z = normalQuantile(0.5 + confidence / 2);
+        double populationCorrection = numNodes > 1 ? 1 - (double) samples / numNodes : 0;
+        for (int node = 0; node < numNodes; node++) {
+            double mean = sums[node] / samples;
+            double variance = samples > 1 ? Math.max(0, (sums[numNodes + node] - samples * mean * mean) / (samples - 1)) : 0;
+            scores[node] = numNodes * mean;
+            errors[node] = z * numNodes * Math.sqrt(variance / samples * populationCorrection);
+        }
+    }
+
+    // Dense indices of the k highest scores, highest first
+    int[] topNodes(int k) {
+        Integer[] nodes = new Integer[scores.length];
+        for (int node = 0; node < nodes.length; node++) {
+            nodes[node] = node;
+        }
+        Arrays.sort(nodes, (a, b) -> Double.compare(scores[b], scores[a]));
+        int[] top = new int[Math.min(k, nodes.length)];
+        for (int i = 0; i < top.length; i++) {
+            top[i] = nodes[i];
+        }
+        return top;
+    }
+
+    // True when every one of the k highest scores has an error bound of at most relativeError times the score
+    boolean topKWithinRelativeError(int k, double relativeError) {
+        for (int node : topNodes(k)) {
+            if (errors[node] > relativeError * scores[node]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Inverse of the standard normal CDF (Acklam's rational approximation, relative error below 1.2e-9)
+    static double normalQuantile(double p) {
+        double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02, 1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02, 6.680131188771972e+01, -1.328068155288572e+01};
+        double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00, -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00, 3.754408661907416e+00};
+        double low = 0.02425;
+        if (p < low) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5]) / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if (p > 1 - low) {
+            double q = Math.sqrt(-2 * Math.log(1 - p));
+            return -(((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5]) / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+}
+
+/*
+* Scratch state of one Brandes single-source computation, allocated once per thread and reused for every source.
+* */
+class BrandesWorkspace {
+    private final CsrGraph graph;
+    // Indexed heap of the weighted (Dijkstra) variant, null for the unweighted BFS variant
+    private final IndexedMinHeap heap;
+
+    /*
+    * The per-source data structures are primitive arrays indexed by node:
+    * Distance Array:
+    *       To store shortest distance (in hops, or in total weight for the weighted variant) from the source node to each node
+    *       in the graph. -1 means not reached yet,
+    *       the source node has a distance of 0.
+    * Sigma Array:
+    *       This keeps track of the number of shortest paths from the source node to each node. Initially, all sigma
+    *       values are 0 except for the source node, which has a sigma value of 1.
+    * Order Array:
+    *       The nodes in the order BFS reached them (Dijkstra settled them). It is the BFS queue and, read backwards, the stack of the accumulation.
+    *       Predecessors are not stored: v is a predecessor of w exactly when there is an edge v -> w and distance[w] == distance[v] + 1
+    *       (distance[w] == distance[v] + weight for the weighted variant).
+    * Delta Array:
+    *       This array is used for the accumulation phase to accumulate dependencies for each node.
+    * Only the entries of nodes reached from the previous source are reset, so nothing is allocated per source.
+    * */
+    final int[] distance;
+    final double[] sigma;
+    final double[] delta;
+    final int[] order;
+    // Number of nodes reached by the last run (the first `reached` entries of order)
+    int reached;
+    // Weighted variant only: zero-weight in-edges within a group of equal distance, and the group's topological order
+    private final int[] zeroInDegree;
+    private final int[] groupOrder;
+
+    BrandesWorkspace(CsrGraph graph, boolean weighted) {
+        this.graph = graph;
+        this.heap = weighted ? new IndexedMinHeap(graph.nodeCount()) : null;
+        int numNodes = graph.nodeCount();
+        distance = new int[numNodes];
+        sigma = new double[numNodes];
+        delta = new double[numNodes];
+        order = new int[numNodes];
+        zeroInDegree = weighted ? new int[numNodes] : null;
+        groupOrder = weighted ? new int[numNodes] : null;
+        Arrays.fill(distance, -1);
+    }
+
+    // Runs the BFS and the accumulation from one source, delta[] then holds the dependency of every reached node
+    void run(int sourceNode) {
+        if (heap != null) {
+            runWeighted(sourceNode);
+            return;
+        }
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int head = 0;
+        int tail = 0;
+        distance[sourceNode] = 0;
+        sigma[sourceNode] = 1.0;
+        order[tail++] = sourceNode;
+
+        // Breadth-first search
+        while (head < tail) {
+            int currentNode = order[head++];
+            for (int e = offsets[currentNode]; e < offsets[currentNode + 1]; e++) {
+                int neighbor = targets[e];
+                // Neighbor found for the first time
+                if (distance[neighbor] < 0) {
+                    order[tail++] = neighbor;
+                    distance[neighbor] = distance[currentNode] + 1;
+                }
+                // Shortest path to neighbor via currentNode?
+                if (distance[neighbor] == distance[currentNode] + 1) {
+                    sigma[neighbor] += sigma[currentNode];
+                }
+            }
+        }
+        reached = tail;
+        /*
+        * ACCUMULATION:
+        *
+        * Backtracking form Destination Nodes:
+        *           After completing the BFS traversal, we backtrack from the destination nodes (nodes reached during BFS)
+        *           to the source node along the shortest paths, i.e. we walk the BFS order backwards.
+        * Dependency Accumulation:
+        *           During backtracking, for each node on the path from a destination node to the source node, we calculate the dependency
+        *           (delta) of the node from the successors one BFS level further away.
+        * */
+        for (int i = tail - 1; i >= 0; i--) {
+            int currentNode = order[i];
+            for (int e = offsets[currentNode]; e < offsets[currentNode + 1]; e++) {
+                int successor = targets[e];
+                if (distance[successor] == distance[currentNode] + 1) {
+                    delta[currentNode] += (sigma[currentNode] / sigma[successor]) * (1 + delta[successor]);
+                }
+            }
+        }
+    }
+
+    /*
+    * WEIGHTED VARIANT (Dijkstra-based Brandes):
+    *       Same as the BFS variant, but the distances are sums of edge weights (the travel times ShortestPath uses).
+    *       Nodes are settled in order of distance from an indexed heap holding each node at most once (decreaseKey instead of
+    *       duplicate entries). Sigma is then pushed along the shortest-path edges in that order, which needs every
+    *       predecessor of a node to come before it.
+    * ZERO WEIGHTS:
+    *       With positive weights a predecessor is always strictly closer, so the settle order is enough. A zero-weight edge
+    *       u -> v with distance[u] == distance[v] joins two nodes of the same distance, which Dijkstra may settle in either
+    *       order (then v would pass its sigma on before u added to it, and its delta would be read before it is final).
+    *       Every group of equal distance is therefore ordered topologically over its zero-weight edges first. A zero-weight
+    *       cycle among equally distant nodes gives infinitely many shortest walks and is rejected with
+    *       IllegalArgumentException; weights must not be negative (GraphReader stores absolute values).
+    * */
+    private void runWeighted(int sourceNode) {
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] weights = graph.weights;
+        int tail = 0;
+        distance[sourceNode] = 0;
+        heap.insert(sourceNode, 0);
+
+        // Dijkstra's algorithm for the distances and the settle order
+        while (!heap.isEmpty()) {
+            int currentNode = heap.pollMin();
+            order[tail++] = currentNode;
+            int currentDistance = distance[currentNode];
+            for (int e = offsets[currentNode]; e < offsets[currentNode + 1]; e++) {
+                int neighbor = targets[e];
+                int newDistance = currentDistance + weights[e];
+                if (distance[neighbor] < 0 || newDistance < distance[neighbor]) {
+                    // Neighbor found for the first time, or a shorter path to it
+                    distance[neighbor] = newDistance;
+                    heap.insertOrDecrease(neighbor, newDistance);
+                }
+            }
+        }
+        reached = tail;
+
+        // Predecessors first within every group of equal distance (contiguous in the settle order)
+        for (int start = 0; start < tail; ) {
+            int end = start + 1;
+            while (end < tail && distance[order[end]] == distance[order[start]]) {
+                end++;
+            }
+            if (end - start > 1) {
+                orderZeroWeightEdges(start, end);
+            }
+            start = end;
+        }
+
+        // Number of shortest paths, pushed along the shortest-path edges
+        sigma[sourceNode] = 1.0;
+        for (int i = 0; i < tail; i++) {
+            int currentNode = order[i];
+            for (int e = offsets[currentNode]; e < offsets[currentNode + 1]; e++) {
+                int neighbor = targets[e];
+                if (neighbor != currentNode && distance[neighbor] == distance[currentNode] + weights[e]) {
+                    sigma[neighbor] += sigma[currentNode];
+                }
+            }
+        }
+
+        // Accumulation over the settle order backwards
+        for (int i = tail - 1; i >= 0; i--) {
+            int currentNode = order[i];
+            for (int e = offsets[currentNode]; e < offsets[currentNode + 1]; e++) {
+                int successor = targets[e];
+                if (successor != currentNode && distance[successor] == distance[currentNode] + weights[e]) {
+                    delta[currentNode] += (sigma[currentNode] / sigma[successor]) * (1 + delta[successor]);
+                }
+            }
+        }
+    }
+
+    // Reorders order[start .. end) (nodes of one distance) so that every zero-weight edge inside it points forward (Kahn)
+    private void orderZeroWeightEdges(int start, int end) {
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] weights = graph.weights;
+        int zeroEdges = 0;
+        for (int i = start; i < end; i++) {
+            int node = order[i];
+            for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+                if (weights[e] == 0 && targets[e] != node && distance[targets[e]] == distance[node]) {
+                    zeroInDegree[targets[e]]++;
+                    zeroEdges++;
+                }
+            }
+        }
+        if (zeroEdges == 0) {
+            return;
+        }
+        int head = 0;
+        int tail = 0;
+        for (int i = start; i < end; i++) {
+            if (zeroInDegree[order[i]] == 0) {
+                groupOrder[tail++] = order[i];
+            }
+        }
+        while (head < tail) {
+            int node = groupOrder[head++];
+            for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+                int next = targets[e];
+                if (weights[e] == 0 && next != node && distance[next] == distance[node] && --zeroInDegree[next] == 0) {
+                    groupOrder[tail++] = next;
+                }
+            }
+        }
+        if (tail < end - start) {
+            for (int i = start; i < end; i++) {
+                zeroInDegree[order[i]] = 0;
+            }
+            reset();
+            throw new IllegalArgumentException("Weighted betweenness is undefined on a zero-weight cycle through city "
+                    + graph.nodeId(order[start]));
+        }
+        System.arraycopy(groupOrder, 0, order, start, tail);
+    }
+
+    // Clears the entries touched by the last run
+    void reset() {
+        for (int i = 0; i < reached; i++) {
+            int node = order[i];
+            distance[node] = -1;
+            sigma[node] = 0.0;
+            delta[node] = 0.0;
+        }
+        reached = 0;
+    }
+
+    // Adds the dependencies of one source (and their squares, if the accumulator has room for them) to an accumulator
+    void accumulate(int sourceNode, double[] accumulator) {
+        int numNodes = distance.length;
+        boolean squares = accumulator.length > numNodes;
+        run(sourceNode);
+        for (int i = 0; i < reached; i++) {
+            int node = order[i];
+            if (node != sourceNode) {
+                double dependency = delta[node];
+                accumulator[node] += dependency;
+                if (squares) {
+                    accumulator[numNodes + node] += dependency * dependency;
+                }
+            }
+        }
+        reset();
+    }
+}
 
 public class NetworkAnalysis extends GraphReader {
 
@@ -26,6 +357,11 @@ public class NetworkAnalysis extends GraphReader {
     public NetworkAnalysis(String filePath) {
         super(filePath);
     }
+
+    // Constructor that accepts an already loaded graph
+    public NetworkAnalysis(CsrGraph graph) {
+        super(graph);
+    }
     /*
     * BETWEENNESS CENTRALITY:
     *       Betweenness centrality measure the extent to which a node lies on the shortest paths between other nodes in the network.
@@ -44,93 +380,213 @@ public class NetworkAnalysis extends GraphReader {
     * */
     // Method to calculate betweenness centrality of nodes (using Brandes' algorithm)
     public Map<Integer, Double> calculateBetweennessCentrality() {
-        Map<Integer, Double> betweennessCentrality = new HashMap<>();
-
-        // Initialize betweenness centrality for all nodes to 0
-        for (Integer nodeId : adjacencyList.keySet()) {
-            betweennessCentrality.put(nodeId, 0.0);
-        }
-
-        // Iterate over all nodes as potential sources
-        for (Integer sourceNode : adjacencyList.keySet()) {
-            /*
-            * Before starting the BFS traversal, we initialize several data structures:
-            * Distance Map:
-            *       To store shortest distance from the source node to each node in the graph. Initially, all distances
-            *       are set to a large value except for the source node, which has a distance of 0.
-            * Sigma Map:
-            *       This keeps track of the number of shortest paths from the source node to each node. Initially, all sigma
-            *       values are set to 0 except for the source node, which has a sigma value of 1.
-            * Path Map:
-            *       This stores lists of predecessor nodes for each node. it is used to track the shortest paths during the BFS traversal.
-            * Delta Map:
-            *       This map is used to for the accumulation phase to accumulate dependencies for each node.
-            * */
-            // Initialize data structures for the algorithm
-            Map<Integer, List<Integer>> paths = new HashMap<>();
-            Map<Integer, Integer> distance = new HashMap<>();
-            Map<Integer, Double> sigma = new HashMap<>();
-            Map<Integer, Double> delta = new HashMap<>();
-            Queue<Integer> queue = new LinkedList<>();
-            Stack<Integer> stack = new Stack<>();
-
-            // Initialization
-            for (Integer nodeId : adjacencyList.keySet()) {
-                paths.put(nodeId, new ArrayList<>());
-                distance.put(nodeId, -1);
-                sigma.put(nodeId, 0.0);
-                delta.put(nodeId, 0.0);
-            }
-            distance.put(sourceNode, 0);
-            sigma.put(sourceNode, 1.0);
-            queue.offer(sourceNode);
-
-            // Breadth-first search
-            while (!queue.isEmpty()) {
-                int currentNode = queue.poll();
-                stack.push(currentNode);
-                for (Edge edge : getAdjacentEdges(currentNode)) {
-                    int neighbor = edge.toNodeId;
-                    // Neighbor found for the first time
-                    if (distance.get(neighbor) < 0) {
-                        queue.offer(neighbor);
-                        distance.put(neighbor, distance.get(currentNode) + 1);
-                    }
-                    // Shortest path to neighbor via currentNode?
-                    if (distance.get(neighbor) == distance.get(currentNode) + 1) {
-                        sigma.put(neighbor, sigma.get(neighbor) + sigma.get(currentNode));
-                        paths.get(neighbor).add(currentNode);
+        return toCentralityMap(betweennessScores(1));
+    }
+
+    // Method to calculate betweenness centrality with the sources split across `parallelism` threads
+    public Map<Integer, Double> calculateBetweennessCentrality(int parallelism) {
+        return toCentralityMap(betweennessScores(parallelism));
+    }
+
+    /*
+    * WEIGHTED BETWEENNESS CENTRALITY:
+    *       calculateBetweennessCentrality counts hops and ignores the weights, while ShortestPath treats the weights as travel time.
+    *       The weighted variant runs Dijkstra instead of BFS for every source (see BrandesWorkspace), so the hub ranking follows the
+    *       same shortest routes ShortestPath computes. The scratch arrays and the heap are reused for every source of a thread.
+    * */
+    // Method to calculate weighted betweenness centrality of nodes
+    public Map<Integer, Double> calculateWeightedBetweennessCentrality() {
+        return toCentralityMap(weightedBetweennessScores(1));
+    }
+
+    // Method to calculate weighted betweenness centrality with the sources split across `parallelism` threads
+    public Map<Integer, Double> calculateWeightedBetweennessCentrality(int parallelism) {
+        return toCentralityMap(weightedBetweennessScores(parallelism));
+    }
+
+    /*
+    * PARALLEL BRANDES:
+    *       The single-source computations are independent, so the sources are cut into blocks of SOURCE_BLOCK sources and the
+    *       blocks are dealt to a fixed number of stripes (block b belongs to stripe b % STRIPES). The threads take whole
+    *       stripes; a stripe sums its sources in order into its own accumulator, with the primitive scratch arrays of the
+    *       thread's BrandesWorkspace. Finished stripes are added to the total strictly in stripe order, and their arrays are
+    *       reused for later stripes, so usually only about P accumulators exist at a time.
+    *       The stripes and the order of every floating-point addition only depend on the list of sources, never on the number
+    *       of threads, so the serial run (parallelism 1) and every parallel run give identical results.
+    * */
+    // Betweenness centrality of every node, indexed by dense node index
+    double[] betweennessScores(int parallelism) {
+        int[] sources = new int[csr.nodeCount()];
+        for (int node = 0; node < sources.length; node++) {
+            sources[node] = node;
+        }
+        return sumDependencies(sources, false, false, parallelism);
+    }
+
+    // Weighted betweenness centrality of every node, indexed by dense node index
+    double[] weightedBetweennessScores(int parallelism) {
+        int[] sources = new int[csr.nodeCount()];
+        for (int node = 0; node < sources.length; node++) {
+            sources[node] = node;
+        }
+        return sumDependencies(sources, false, true, parallelism);
+    }
+
+    /*
+    * Sums the dependencies delta_s(v) of the given sources for every node v.
+    * With squares, the result has 2V entries: the sums followed by the sums of squares (needed for the sampling error).
+    * Weighted uses the Dijkstra-based single-source computation instead of BFS.
+    * */
+    double[] sumDependencies(int[] sources, boolean squares, boolean weighted, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1: " + parallelism);
+        }
+        int numBlocks = (sources.length + SOURCE_BLOCK - 1) / SOURCE_BLOCK;
+        int numStripes = Math.max(1, Math.min(STRIPES, numBlocks));
+        StripeSum sum = new StripeSum(numStripes, squares ? 2 * csr.nodeCount() : csr.nodeCount());
+        AtomicInteger nextStripe = new AtomicInteger();
+        IntConsumer worker = t -> {
+            BrandesWorkspace workspace = new BrandesWorkspace(csr, weighted);
+            for (int stripe = nextStripe.getAndIncrement(); stripe < numStripes; stripe = nextStripe.getAndIncrement()) {
+                double[] accumulator = sum.acquire();
+                for (int block = stripe; block < numBlocks; block += numStripes) {
+                    for (int i = block * SOURCE_BLOCK; i < Math.min(sources.length, (block + 1) * SOURCE_BLOCK); i++) {
+                        workspace.accumulate(sources[i], accumulator);
                     }
                 }
+                sum.add(stripe, accumulator);
             }
-            /*
-            * ACCUMULATION:
-            *
-            * Backtracking form Destination Nodes:
-            *           After completing the BFS traversal, we backtrack from the destination nodes (nodes reached during BFS)
-            *           to the source node along the shortest paths.
-            * Dependency Accumulation:
-            *           During backtracking, for each node on the path from a destination node to the source node, we calculate the dependency
-            *           (delta) of the node on the updating the delta map accordingly.
-            * Update Betweenness Centrality:
-            *           As we backtrack, we update the betweenness centrality of each node by adding its computed delta value.
-            *           This step ensures that each node's betweenness centrality reflects its role as a bridge or connector between
-            *           other nodes in the graph.
-            * */
-            // Accumulation
-            while (!stack.isEmpty()) {
-                int currentNode = stack.pop();
-                for (int predecessor : paths.get(currentNode)) {
-                    double factor = (sigma.get(predecessor) / sigma.get(currentNode)) * (1 + delta.get(currentNode));
-                    delta.put(predecessor, delta.get(predecessor) + factor);
-                }
-                if (currentNode != sourceNode) {
-                    betweennessCentrality.put(currentNode, betweennessCentrality.get(currentNode) + delta.get(currentNode));
+        };
+        int workers = Math.min(parallelism, numStripes);
+        if (workers == 1) {
+            worker.accept(0);
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(workers);
+            try {
+                pool.submit(() -> IntStream.range(0, workers).parallel().forEach(worker)).join();
+            } finally {
+                pool.shutdown();
+            }
+        }
+        return sum.total;
+    }
+
+    // Number of consecutive sources one stripe takes at a time
+    static final int SOURCE_BLOCK = 16;
+    // Number of stripes the blocks are dealt to, the most threads sumDependencies can use
+    static final int STRIPES = 64;
+
+    // Adds the accumulators of finished stripes to the total in stripe order, recycling the arrays
+    private static final class StripeSum {
+        final double[] total;
+        private final int length;
+        private final double[][] finished;
+        private final ArrayDeque<double[]> free = new ArrayDeque<>();
+        private int nextToAdd;
+
+        StripeSum(int numStripes, int length) {
+            this.total = new double[length];
+            this.length = length;
+            this.finished = new double[numStripes][];
+        }
+
+        // A zeroed accumulator
+        synchronized double[] acquire() {
+            double[] accumulator = free.poll();
+            return accumulator != null ? accumulator : new double[length];
+        }
+
+        synchronized void add(int stripe, double[] accumulator) {
+            finished[stripe] = accumulator;
+            while (nextToAdd < finished.length && finished[nextToAdd] != null) {
+                double[] next = finished[nextToAdd];
+                finished[nextToAdd++] = null;
+                for (int i = 0; i < length; i++) {
+                    total[i] += next[i];
                 }
+                Arrays.fill(next, 0.0);
+                free.push(next);
+            }
+        }
+    }
+
+    /*
+    * APPROXIMATE BETWEENNESS CENTRALITY (SOURCE SAMPLING):
+    *       Betweenness centrality is a sum over all V sources: BC(v) = sum of delta_s(v). Running the same single-source accumulation
+    *       from k sampled pivots only (drawn uniformly without replacement) and scaling by V / k gives an unbiased estimate.
+    *
+    * Error Bound:
+    *       For each node the k sampled dependencies give a sample variance S^2. By the central limit theorem the estimate lies within
+    *           z * V * sqrt(S^2 / k * (1 - k / V))
+    *       of the exact value with the requested confidence (z is the normal quantile, (1 - k / V) the finite population correction,
+    *       so the bound drops to 0 once every source is sampled).
+    *
+    * Accuracy is traded for time through k: the run time is k / V of the exact computation.
+    * */
+    // Method to estimate betweenness centrality from `samples` uniformly sampled sources
+    public BetweennessEstimate estimateBetweennessCentrality(int samples, double confidence, long seed, int parallelism) {
+        int numNodes = csr.nodeCount();
+        int k = Math.max(1, Math.min(samples, numNodes));
+        int[] pivots = samplePivots(seed);
+        double[] sums = sumDependencies(Arrays.copyOf(pivots, k), true, false, parallelism);
+        return new BetweennessEstimate(csr.nodeIds, sums, k, confidence);
+    }
+
+    /*
+    * ADAPTIVE SAMPLING:
+    *       Samples pivots in rounds of growing size (each round doubles the number of samples) and stops as soon as each of the
+    *       `topK` highest ranked nodes has an error bound of at most relativeError times its estimate, or once maxSamples pivots
+    *       were used. The pivots come from one seeded permutation, so the run is reproducible.
+    * */
+    // Method to estimate betweenness centrality, sampling until the top-k estimates are precise enough
+    public BetweennessEstimate estimateBetweennessCentralityAdaptive(double relativeError, int topK, double confidence,
+                                                                    int maxSamples, long seed, int parallelism) {
+        int numNodes = csr.nodeCount();
+        int limit = Math.max(1, Math.min(maxSamples, numNodes));
+        int[] pivots = samplePivots(seed);
+        double[] sums = new double[2 * numNodes];
+
+        int used = 0;
+        int round = Math.min(limit, Math.max(SOURCE_BLOCK * parallelism, 64));
+        BetweennessEstimate estimate;
+        while (true) {
+            int next = Math.min(limit, used + round);
+            double[] batch = sumDependencies(Arrays.copyOfRange(pivots, used, next), true, false, parallelism);
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] += batch[i];
+            }
+            used = next;
+            estimate = new BetweennessEstimate(csr.nodeIds, sums, used, confidence);
+            if (used == limit || estimate.topKWithinRelativeError(topK, relativeError)) {
+                return estimate;
             }
+            round = used;
+        }
+    }
+
+    // Random permutation of all dense node indices (Fisher-Yates), its prefixes are samples without replacement
+    int[] samplePivots(long seed) {
+        int[] pivots = new int[csr.nodeCount()];
+        for (int node = 0; node < pivots.length; node++) {
+            pivots[node] = node;
+        }
+        Random random = new Random(seed);
+        for (int i = pivots.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = pivots[i];
+            pivots[i] = pivots[j];
+            pivots[j] = swap;
         }
+        return pivots;
+    }
 
-        return betweennessCentrality;
+    // Method to convert a centrality array (indexed by dense node index) into a map keyed by city ID
+    Map<Integer, Double> toCentralityMap(double[] centrality) {
+        Map<Integer, Double> result = new HashMap<>();
+        for (int node = 0; node < centrality.length; node++) {
+            result.put(csr.nodeIds[node], centrality[node]);
+        }
+        return result;
     }
 
 
@@ -153,6 +609,17 @@ public class NetworkAnalysis extends GraphReader {
         System.out.println();
     }
 
+    // Method to print the top-k nodes of an estimate together with their error bounds
+    public void printTopCentralityNodes(BetweennessEstimate estimate, String measureName, int topK) {
+        int[] top = estimate.topNodes(topK);
+        System.out.printf("Top %d Nodes with Highest %s Centrality (%d of %d sources sampled, %.0f%% confidence):%n",
+                top.length, measureName, estimate.samples, estimate.scores.length, estimate.confidence * 100);
+        for (int node : top) {
+            System.out.printf("Node %d: %.2f +/- %.2f%n", estimate.nodeIds[node], estimate.scores[node], estimate.errors[node]);
+        }
+        System.out.println();
+    }
+
     // Main method for testing
     public static void main(String[] args) {
         // Path to the dataset file
@@ -166,9 +633,25 @@ public class NetworkAnalysis extends GraphReader {
 
         // Print top 5 nodes with the highest betweenness centrality
         networkAnalysis.printTopCentralityNodes(betweennessCentrality, "Betweenness");
+
+        // Same computation with the sources split across all cores, the result must not change
+        int processors = Runtime.getRuntime().availableProcessors();
+        Map<Integer, Double> parallelCentrality = networkAnalysis.calculateBetweennessCentrality(processors);
+        System.out.println("Parallel result (" + processors + " threads) identical to serial: " + parallelCentrality.equals(betweennessCentrality));
+
+        // Approximation from an eighth of the sources, and adaptive sampling until the top 5 are within 5%
+        BetweennessEstimate sampled = networkAnalysis.estimateBetweennessCentrality(networkAnalysis.csr.nodeCount() / 8, 0.95, 42, processors);
+        networkAnalysis.printTopCentralityNodes(sampled, "Betweenness", 5);
+        BetweennessEstimate adaptive = networkAnalysis.estimateBetweennessCentralityAdaptive(0.05, 5, 0.95, Integer.MAX_VALUE, 42, processors);
+        networkAnalysis.printTopCentralityNodes(adaptive, "Betweenness", 5);
+
+        // Betweenness along the weighted (travel time) shortest paths
+        Map<Integer, Double> weightedCentrality = networkAnalysis.calculateWeightedBetweennessCentrality(processors);
+        networkAnalysis.printTopCentralityNodes(weightedCentrality, "Weighted Betweenness");
     }
     /*
-     * Time Complexity: O(V * (V + E)) --> Stack takes O(V), and BFS takes O(V + E)
-     * Space Complexity: O(V)
+     * Time Complexity: O(V * (V + E)) --> Stack takes O(V), and BFS takes O(V + E); divided by the number of threads in parallel mode
+     *                  O(V * (V + E) * log V) for the weighted variant (Dijkstra per source)
+     * Space Complexity: O(V) per thread --> primitive per-source arrays allocated once per thread, plus usually about P stripe accumulators
      * */
 }
@@ -0,0 +1,192 @@
+/*
+* **** PARALLEL EDGE LIST LOADER ****
+* For edge dumps with hundreds of millions of lines the single-threaded parse is CPU-bound, so the file is split up:
+*       1. The file is cut into chunks of roughly equal size, every cut is moved forward to just after the next '\n',
+*          so each chunk holds whole lines only.
+*       2. Every chunk is memory-mapped and parsed into its own EdgeList on a ForkJoinPool (MappedEdgeListLoader.parseLines).
+*       3. The chunk edge lists are merged into the CSR arrays with the two-pass count-then-fill build of CsrGraph: every
+*          thread counts and fills a contiguous range of chunks, so the chunks stay in file order (the graph is the same for
+*          any number of threads) and the per-node cursor arrays grow with the threads, not with the file size.
+*
+* The loader remembers how many edges the last load read and how long it took, to report edges per second.
+*
+* Usage: java ParallelEdgeListLoader [edge list file] [max threads]
+* */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+public class ParallelEdgeListLoader {
+
+    // Target chunk size, small enough to balance the threads and large enough to keep the per-chunk overhead low
+    static final long CHUNK_BYTES = 32L << 20;
+    // Files smaller than this are not worth splitting
+    static final long MIN_SPLIT_BYTES = 1L << 20;
+
+    private final int parallelism;
+    private long lastEdgeCount;
+    private long lastElapsedNanos;
+
+    // Constructor that accepts the number of parsing threads
+    public ParallelEdgeListLoader(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    // Method to load an edge list file into a CSR graph
+    public CsrGraph load(String filePath) throws IOException {
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel);
+            int numChunks = bounds.length - 1;
+
+            // Parse every chunk into its own edge list
+            EdgeList[] parts = new EdgeList[numChunks];
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int c = 0; c < numChunks; c++) {
+                int chunk = c;
+                tasks.add(() -> {
+                    long length = bounds[chunk + 1] - bounds[chunk];
+                    EdgeList edges = new EdgeList((int) Math.min(length / 12 + 16, Integer.MAX_VALUE - 8));
+                    MappedEdgeListLoader.readRange(channel, bounds[chunk], bounds[chunk + 1], edges);
+                    parts[chunk] = edges;
+                    return null;
+                });
+            }
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                waitFor(future);
+            }
+
+            // Merge in file order
+            CsrGraph graph = CsrGraph.fromEdgeLists(parts, pool);
+            lastEdgeCount = graph.edgeCount();
+            lastElapsedNanos = System.nanoTime() - start;
+            return graph;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Chunk boundaries: bounds[c] .. bounds[c + 1] is chunk c, every boundary is the start of a line
+    private long[] chunkBounds(FileChannel channel) throws IOException {
+        long fileSize = channel.size();
+        int numChunks = 1;
+        if (fileSize >= MIN_SPLIT_BYTES) {
+            numChunks = (int) Math.max(4L * parallelism, (fileSize + CHUNK_BYTES - 1) / CHUNK_BYTES);
+            numChunks = (int) Math.min(numChunks, fileSize / (MIN_SPLIT_BYTES / 4));
+        }
+
+        long[] bounds = new long[numChunks + 1];
+        bounds[numChunks] = fileSize;
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        for (int c = 1; c < numChunks; c++) {
+            long position = Math.max(fileSize / numChunks * c, bounds[c - 1]);
+            bounds[c] = nextLineStart(channel, position, fileSize, probe);
+        }
+        return bounds;
+    }
+
+    // First line start at or after position (a position right after '\n'), or fileSize
+    private static long nextLineStart(FileChannel channel, long position, long fileSize, ByteBuffer probe) throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+        // Start looking at position - 1: if that byte is '\n', position already starts a line
+        long scan = position - 1;
+        while (scan < fileSize) {
+            probe.clear();
+            int read = channel.read(probe, scan);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return scan + i + 1;
+                }
+            }
+            scan += read;
+        }
+        return fileSize;
+    }
+
+    private static void waitFor(Future<Void> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    // Number of edges read by the last load
+    public long getLastEdgeCount() {
+        return lastEdgeCount;
+    }
+
+    // Wall-clock time of the last load (parse and CSR build) in nanoseconds
+    public long getLastElapsedNanos() {
+        return lastElapsedNanos;
+    }
+
+    // Throughput of the last load
+    public double getLastEdgesPerSecond() {
+        return lastElapsedNanos == 0 ? 0 : lastEdgeCount / (lastElapsedNanos / 1e9);
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Path to the dataset file
+        String filePath = args.length > 0 ? args[0] : "reachability.txt";
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        CsrGraph reference = null;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ParallelEdgeListLoader loader = new ParallelEdgeListLoader(threads);
+            // Warm-up, then keep the best of three loads
+            loader.load(filePath);
+            long bestNanos = Long.MAX_VALUE;
+            CsrGraph graph = null;
+            for (int round = 0; round < 3; round++) {
+                graph = loader.load(filePath);
+                bestNanos = Math.min(bestNanos, loader.getLastElapsedNanos());
+            }
+
+            // The merged graph must not depend on the number of threads
+            if (reference == null) {
+                reference = graph;
+            }
+            boolean identical = Arrays.equals(reference.nodeIds, graph.nodeIds)
+                    && Arrays.equals(reference.offsets, graph.offsets)
+                    && Arrays.equals(reference.targets, graph.targets)
+                    && Arrays.equals(reference.weights, graph.weights);
+
+            System.out.printf("%2d threads: %,d edges in %8.2f ms  %,14.0f edges/s  %s%n", threads, loader.getLastEdgeCount(),
+                    bestNanos / 1e6, loader.getLastEdgeCount() / (bestNanos / 1e9), identical ? "identical" : "DIFFERENT");
+        }
+    }
+    /*
+     * Time Complexity: O(n / P + E log V / P + P * V) --> n bytes parsed by P threads, binary search of the dense IDs per edge
+     * Space Complexity: O(E + P * V) --> edge lists of all chunks plus one cursor array per thread
+     * */
+}
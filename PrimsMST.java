@@ -1,42 +1,74 @@
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
+/*
+* **** PRIM'S MINIMUM SPANNING TREE ****
+* LAZY (primsMST): every edge leaving the tree goes into a heap of (weight, edge) pairs; stale entries whose target joined the
+*       tree meanwhile are skipped when polled. The heap holds O(E) entries, and only the cities reachable from city 0 are
+*       spanned.
+*
+* EAGER (minimumSpanningForest): the heap holds nodes instead of edges, keyed by the lightest edge from the tree to them
+*       (an IndexedMinHeap with decrease-key, 4 children per heap node by default). An edge that improves a node's key
+*       lowers it in place, so the heap never holds more than V entries. When a tree cannot grow any more, the next node
+*       not yet spanned starts a new tree: the result is a spanning forest covering every city.
+*
+* Edges are followed in their direction (from the tree to the new city), like the lazy version. On a directed graph the
+* greedy choice among equal weights can lead to trees of different total weight, so the two variants only agree exactly when
+* the weights are distinct.
+* */
 public class PrimsMST extends GraphReader {
 
+    // Children per heap node of the eager variant
+    static final int HEAP_ARITY = 4;
+
     // Constructor that accepts a file path
     public PrimsMST(String filePath) {
         super(filePath);
     }
 
+    // Constructor that accepts an already loaded graph
+    public PrimsMST(CsrGraph graph) {
+        super(graph);
+    }
+
     // Prim's Algorithm to find Minimum Spanning Tree (MST)
     public List<Edge> primsMST() {
         List<Edge> mst = new ArrayList<>(); // An empty list to store the edges of the MST
-        Set<Integer> visited = new HashSet<>(); // Set to track visited vertices
-        PriorityQueue<Edge> pq = new PriorityQueue<>(Comparator.comparingInt(edge -> edge.weight)); // Priority queue to store edges
+        boolean[] visited = new boolean[csr.nodeCount()]; // Array to track visited vertices
+        LongMinHeap pq = new LongMinHeap(csr.nodeCount()); // Priority queue of (weight, edge index) pairs packed into longs
 
         // Start from vertex 0
-        int startVertex = 0;
-        visited.add(startVertex);
+        int startVertex = csr.indexOf(0);
+        if (startVertex < 0) {
+            return mst;
+        }
+        visited[startVertex] = true;
 
         // Add all edges incident to startVertex to the priority queue
-        if (adjacencyList.containsKey(0)) {
-            for (Edge edge : adjacencyList.get(0)) {
-                pq.offer(edge);
-            }
+        for (int e = csr.offsets[startVertex]; e < csr.offsets[startVertex + 1]; e++) {
+            pq.offer(LongMinHeap.pack(csr.weights[e], e));
+        }
+
+        // Source node of every edge index, needed to rebuild the Edge of the MST
+        int[] edgeSource = new int[csr.edgeCount()];
+        for (int node = 0; node < csr.nodeCount(); node++) {
+            Arrays.fill(edgeSource, csr.offsets[node], csr.offsets[node + 1], node);
         }
 
         while (!pq.isEmpty()) {
-            Edge minEdge = pq.poll();
-            int nextNode = minEdge.toNodeId;
+            int minEdge = LongMinHeap.index(pq.poll());
+            int nextNode = csr.targets[minEdge];
 
             // If adding this edge doesn't create a cycle, add it to the MST
-            if (!visited.contains(nextNode)) {
-                mst.add(minEdge);
-                visited.add(nextNode);
+            if (!visited[nextNode]) {
+                mst.add(new Edge(csr.nodeIds[edgeSource[minEdge]], csr.nodeIds[nextNode], csr.weights[minEdge]));
+                visited[nextNode] = true;
 
                 // Add all edges incident to the newly visited vertex to the priority queue
-                for (Edge edge : adjacencyList.get(nextNode)) {
-                    if (!visited.contains(edge.toNodeId)) {
-                        pq.add(edge);
+                for (int e = csr.offsets[nextNode]; e < csr.offsets[nextNode + 1]; e++) {
+                    if (!visited[csr.targets[e]]) {
+                        pq.offer(LongMinHeap.pack(csr.weights[e], e));
                     }
                 }
             }
@@ -45,9 +77,49 @@ public class PrimsMST extends GraphReader {
         return mst;
     }
 
+    // Method to find a minimum spanning forest with eager Prim on an indexed 4-ary heap
+    public List<Edge> minimumSpanningForest() {
+        return minimumSpanningForest(HEAP_ARITY);
+    }
+
+    // Method to find a minimum spanning forest with eager Prim on an indexed heap with `arity` children per node
+    public List<Edge> minimumSpanningForest(int arity) {
+        int numNodes = csr.nodeCount();
+        List<Edge> forest = new ArrayList<>();
+        boolean[] inTree = new boolean[numNodes];
+        int[] bestFrom = new int[numNodes]; // Tree end of the lightest known edge to every node in the heap
+        IndexedMinHeap heap = new IndexedMinHeap(numNodes, arity);
+
+        // City 0 first (the lazy version's tree), then every node not spanned yet
+        int first = csr.indexOf(0);
+        for (int r = -1; r < numNodes; r++) {
+            int root = r < 0 ? first : r;
+            if (root < 0 || inTree[root]) {
+                continue;
+            }
+            bestFrom[root] = -1;
+            heap.insert(root, 0);
+            while (!heap.isEmpty()) {
+                int weight = heap.minKey();
+                int node = heap.pollMin();
+                inTree[node] = true;
+                if (bestFrom[node] >= 0) {
+                    forest.add(new Edge(csr.nodeIds[bestFrom[node]], csr.nodeIds[node], weight));
+                }
+                for (int e = csr.offsets[node]; e < csr.offsets[node + 1]; e++) {
+                    int target = csr.targets[e];
+                    if (!inTree[target] && heap.insertOrDecrease(target, csr.weights[e])) {
+                        bestFrom[target] = node;
+                    }
+                }
+            }
+        }
+        return forest;
+    }
+
     public static void main(String[] args) {
         // Path to the dataset file
-        String filePath = "/Users/revanth/Desktop/PSA/PSAFinalProject/src/reachability1.txt";
+        String filePath = args.length > 0 ? args[0] : "/Users/revanth/Desktop/PSA/PSAFinalProject/src/reachability1.txt";
 
         // Create a new MinimumSpanningTree object
         PrimsMST graph = new PrimsMST(filePath);
@@ -60,9 +132,40 @@ public class PrimsMST extends GraphReader {
         for (Edge edge : mst) {
             System.out.println(edge.fromNodeId + " -> " + edge.toNodeId + ", Weight: " + edge.weight);
         }
+
+        // Benchmark: lazy Prim vs eager Prim with 2-, 4- and 8-ary heaps (best of several runs)
+        int runs = 20;
+        long lazyNanos = Long.MAX_VALUE;
+        long lazyWeight = 0;
+        for (int run = 0; run < runs; run++) {
+            long start = System.nanoTime();
+            List<Edge> tree = graph.primsMST();
+            lazyNanos = Math.min(lazyNanos, System.nanoTime() - start);
+            lazyWeight = totalWeight(tree);
+        }
+        System.out.printf("Lazy Prim:  %7.3f ms, %d edges, total weight %d%n", lazyNanos / 1e6, mst.size(), lazyWeight);
+        for (int arity : new int[]{2, 4, 8}) {
+            long eagerNanos = Long.MAX_VALUE;
+            List<Edge> forest = null;
+            for (int run = 0; run < runs; run++) {
+                long start = System.nanoTime();
+                forest = graph.minimumSpanningForest(arity);
+                eagerNanos = Math.min(eagerNanos, System.nanoTime() - start);
+            }
+            System.out.printf("Eager Prim, %d-ary heap: %7.3f ms, %d edges, total weight %d (%d trees)%n", arity, eagerNanos / 1e6,
+                    forest.size(), totalWeight(forest), graph.csr.nodeCount() - forest.size());
+        }
+    }
+
+    private static long totalWeight(List<Edge> edges) {
+        long total = 0;
+        for (Edge edge : edges) {
+            total += edge.weight;
+        }
+        return total;
     }
     /*
-     * Time Complexity: O(E log E)
-     * Space Complexity: O(E)
+     * Time Complexity: O(E log E) lazy, O(E log_d V + V d log_d V) eager
+     * Space Complexity: O(E) lazy, O(V) eager (plus the result)
      * */
 }
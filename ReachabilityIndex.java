@@ -0,0 +1,303 @@
+/*
+* **** REACHABILITY INDEX (TRANSITIVE CLOSURE OF THE CONDENSATION) ****
+* Answers "can I get from A to B" in O(1) with two array reads and a bit test, instead of a BFS per question.
+*
+* BUILD:
+*       1. Strongly connected components (StronglyConnectedComponents.tarjan): cities of one component all reach each other,
+*          so the index only has to know which components reach which, on the condensation DAG.
+*       2. Components are numbered in topological order, so component c can only reach components d >= c. The closure row of
+*          c is a bitset over c .. C - 1 (rounded down to a multiple of 64, so rows of different components line up word by
+*          word), filled in reverse topological order: row(c) = {c} + the union of row(d) over the DAG edges c -> d.
+*
+* MEMORY / SPEED TRADE-OFF:
+*       Query time is constant; the price is the closure, about C^2 / 16 bytes for C components (the triangle above the
+*       diagonal). That is nothing for graphs that condense well (a single component, like reachability.txt, is 8 bytes) and
+*       too much for millions of tiny components, so build refuses closures larger than a byte budget; callers then keep
+*       answering with a search (StronglyConnectedComponents.isReachable prunes it with the topological order).
+*
+* The index can be saved with the graph fingerprint so it is never used with a different graph, and is immutable, so
+* threads can share it. Nodes are dense indices.
+* */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+public class ReachabilityIndex {
+
+    static final int MAGIC = 0x52525441; // "ATRR" read as a little-endian int
+    static final int VERSION = 1;
+    // Largest closure build accepts by default
+    static final long DEFAULT_MAX_BYTES = 256L << 20;
+
+    private final long graphFingerprint;
+    private final int[] component;
+    private final int count;
+    // Row of component c: words rowStart[c] .. rowStart[c + 1] - 1, covering components from (c & ~63) to C - 1
+    private final long[] rowStart;
+    private final long[][] rows;
+
+    private ReachabilityIndex(long graphFingerprint, int[] component, int count, long[][] rows) {
+        this.graphFingerprint = graphFingerprint;
+        this.component = component;
+        this.count = count;
+        this.rows = rows;
+        this.rowStart = new long[count + 1];
+        for (int c = 0; c < count; c++) {
+            rowStart[c + 1] = rowStart[c] + rows[c].length;
+        }
+    }
+
+    // Method to build the index with the default memory budget
+    public static ReachabilityIndex build(CsrGraph graph) {
+        return build(graph, DEFAULT_MAX_BYTES);
+    }
+
+    // Method to build the index, refusing (IllegalArgumentException) when the closure would take more than maxBytes
+    public static ReachabilityIndex build(CsrGraph graph, long maxBytes) {
+        return build(graph, StronglyConnectedComponents.tarjan(graph), maxBytes);
+    }
+
+    // Method to build the index from already computed components
+    public static ReachabilityIndex build(CsrGraph graph, StronglyConnectedComponents components, long maxBytes) {
+        int count = components.count();
+        long bytes = closureBytes(count);
+        if (bytes > maxBytes) {
+            throw new IllegalArgumentException("Reachability closure of " + count + " components needs " + bytes
+                    + " bytes, more than " + maxBytes);
+        }
+        CsrGraph dag = components.condensation();
+        int lastWord = (count - 1) >>> 6;
+        long[][] rows = new long[count][];
+        for (int c = count - 1; c >= 0; c--) {
+            int firstWord = c >>> 6;
+            long[] row = new long[lastWord - firstWord + 1];
+            row[0] |= 1L << c;
+            for (int e = dag.offsets[c]; e < dag.offsets[c + 1]; e++) {
+                int d = dag.targets[e];
+                long[] successor = rows[d];
+                int shift = (d >>> 6) - firstWord;
+                for (int w = 0; w < successor.length; w++) {
+                    row[w + shift] |= successor[w];
+                }
+            }
+            rows[c] = row;
+        }
+        int[] component = new int[graph.nodeCount()];
+        for (int u = 0; u < component.length; u++) {
+            component[u] = components.componentOf(u);
+        }
+        return new ReachabilityIndex(graph.fingerprint(), component, count, rows);
+    }
+
+    // Bytes of the closure rows of count components
+    static long closureBytes(long count) {
+        long words = 0;
+        long lastWord = (count - 1) >>> 6;
+        for (long firstWord = 0; firstWord <= lastWord && count > 0; firstWord++) {
+            long componentsInBlock = Math.min(64, count - firstWord * 64);
+            words += componentsInBlock * (lastWord - firstWord + 1);
+        }
+        return words * 8;
+    }
+
+    // Method to check whether source reaches target (every node reaches itself)
+    public boolean isReachable(int source, int target) {
+        int from = component[source];
+        int to = component[target];
+        if (from > to) {
+            return false; // Later in topological order: never reachable
+        }
+        return (rows[from][(to >>> 6) - (from >>> 6)] & (1L << to)) != 0;
+    }
+
+    // Method to count the nodes a node reaches (itself included)
+    public int reachableCount(int source, StronglyConnectedComponents components) {
+        int from = component[source];
+        int reached = 0;
+        long[] row = rows[from];
+        int base = (from >>> 6) << 6;
+        for (int w = 0; w < row.length; w++) {
+            for (long bits = row[w]; bits != 0; bits &= bits - 1) {
+                reached += components.size(base + (w << 6) + Long.numberOfTrailingZeros(bits));
+            }
+        }
+        return reached;
+    }
+
+    public int componentCount() {
+        return count;
+    }
+
+    public long sizeInBytes() {
+        return rowStart[count] * 8 + component.length * 4L;
+    }
+
+    public boolean matches(CsrGraph graph) {
+        return graph.fingerprint() == graphFingerprint && graph.nodeCount() == component.length;
+    }
+
+    // Method to save the components and the closure with a trailing CRC32
+    public void save(String filePath) throws IOException {
+        CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(Paths.get(filePath))), new CRC32());
+        try (DataOutputStream out = new DataOutputStream(checked)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(graphFingerprint);
+            out.writeInt(component.length);
+            out.writeInt(count);
+            for (int c : component) {
+                out.writeInt(c);
+            }
+            for (long[] row : rows) {
+                for (long word : row) {
+                    out.writeLong(word);
+                }
+            }
+            out.writeLong(checked.getChecksum().getValue());
+        }
+    }
+
+    // Method to load a saved index, refusing files built for another graph
+    public static ReachabilityIndex load(String filePath, CsrGraph graph) throws IOException {
+        CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(Files.newInputStream(Paths.get(filePath))), new CRC32());
+        try (DataInputStream in = new DataInputStream(checked)) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a reachability index file: " + filePath);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported reachability index version " + version + ": " + filePath);
+            }
+            long fingerprint = in.readLong();
+            int numNodes = in.readInt();
+            int count = in.readInt();
+            if (fingerprint != graph.fingerprint() || numNodes != graph.nodeCount()) {
+                throw new IOException("Reachability index was built for a different graph: " + filePath);
+            }
+            if (count < 0 || count > numNodes || (count == 0) != (numNodes == 0)) {
+                throw new IOException("Corrupt reachability index header: " + filePath);
+            }
+            int[] component = new int[numNodes];
+            for (int u = 0; u < numNodes; u++) {
+                component[u] = in.readInt();
+                if (component[u] < 0 || component[u] >= count) {
+                    throw new IOException("Corrupt reachability index: " + filePath);
+                }
+            }
+            int lastWord = (count - 1) >>> 6;
+            long[][] rows = new long[count][];
+            for (int c = 0; c < count; c++) {
+                rows[c] = new long[lastWord - (c >>> 6) + 1];
+                for (int w = 0; w < rows[c].length; w++) {
+                    rows[c][w] = in.readLong();
+                }
+            }
+            long expected = checked.getChecksum().getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Reachability index checksum mismatch: " + filePath);
+            }
+            return new ReachabilityIndex(fingerprint, component, count, rows);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Path to the dataset, number of random pairs, and the size of an extra random sparse graph (many components)
+        String filePath = args.length > 0 ? args[0] : "reachability.txt";
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+        int sparseNodes = args.length > 2 ? Integer.parseInt(args[2]) : 50000;
+
+        benchmark(filePath, GraphReader.loadGraph(filePath), queries, filePath + ".reach");
+
+        // Random sparse graph: about 1.2 edges per node gives many components and a non-trivial DAG
+        Random random = new Random(22);
+        EdgeList edges = new EdgeList();
+        for (int i = 0; i < sparseNodes * 6 / 5; i++) {
+            edges.add(random.nextInt(sparseNodes), random.nextInt(sparseNodes), 1);
+        }
+        String sparsePath = Files.createTempFile("sparse", ".reach").toString();
+        benchmark("random sparse graph", CsrGraph.fromEdges(edges), queries, sparsePath);
+        Files.deleteIfExists(Paths.get(sparsePath));
+    }
+
+    // Builds, saves and reloads the index of a graph, then times random pair queries against a BFS per query
+    private static void benchmark(String name, CsrGraph graph, int queries, String indexPath) throws IOException {
+        int numNodes = graph.nodeCount();
+        long start = System.nanoTime();
+        ReachabilityIndex built = build(graph);
+        double buildMillis = (System.nanoTime() - start) / 1e6;
+        built.save(indexPath);
+        start = System.nanoTime();
+        ReachabilityIndex index = load(indexPath, graph);
+        double loadMillis = (System.nanoTime() - start) / 1e6;
+
+        Random random = new Random(22);
+        int[] sources = new int[queries];
+        int[] targets = new int[queries];
+        for (int q = 0; q < queries; q++) {
+            sources[q] = random.nextInt(numNodes);
+            targets[q] = random.nextInt(numNodes);
+        }
+
+        // BFS per query (early exit at the target), timed on a sample
+        int bfsQueries = Math.min(queries, 2000);
+        int[] queue = new int[numNodes];
+        int[] mark = new int[numNodes];
+        boolean[] expected = new boolean[bfsQueries];
+        start = System.nanoTime();
+        for (int q = 0; q < bfsQueries; q++) {
+            expected[q] = bfsReaches(graph, sources[q], targets[q], queue, mark, q + 1);
+        }
+        double bfsNanos = (double) (System.nanoTime() - start) / bfsQueries;
+
+        start = System.nanoTime();
+        int reachable = 0;
+        for (int q = 0; q < queries; q++) {
+            reachable += index.isReachable(sources[q], targets[q]) ? 1 : 0;
+        }
+        double indexNanos = (double) (System.nanoTime() - start) / queries;
+        int mismatches = 0;
+        for (int q = 0; q < bfsQueries; q++) {
+            if (index.isReachable(sources[q], targets[q]) != expected[q]) {
+                mismatches++;
+            }
+        }
+
+        System.out.printf("%s: %d nodes, %d components, index %,d bytes, built in %.1f ms, loaded in %.1f ms%n", name, numNodes,
+                index.componentCount(), index.sizeInBytes(), buildMillis, loadMillis);
+        System.out.printf("  BFS per query %,.0f ns, index %,.1f ns (%d of %d pairs reachable, %d mismatches)%n", bfsNanos,
+                indexNanos, reachable, queries, mismatches);
+    }
+
+    private static boolean bfsReaches(CsrGraph graph, int source, int target, int[] queue, int[] mark, int stamp) {
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        mark[source] = stamp;
+        while (head < tail) {
+            int u = queue[head++];
+            if (u == target) {
+                return true;
+            }
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                if (mark[graph.targets[e]] != stamp) {
+                    mark[graph.targets[e]] = stamp;
+                    queue[tail++] = graph.targets[e];
+                }
+            }
+        }
+        return false;
+    }
+    /*
+     * Time Complexity: O(V + E) for the components, O(E_dag * C / 64) for the closure; O(1) per query
+     * Space Complexity: O(V + C^2 / 64) words
+     * */
+}
@@ -0,0 +1,162 @@
+/*
+* **** ROUTING SERVER LOAD GENERATOR ****
+* Closed-loop load against a RoutingServer on localhost: every client thread sends one request, waits for the answer and
+* sends the next, for a fixed duration. Requests are random /distance (80%), /reachable (15%) and /batch of BATCH_PAIRS
+* pairs (5%) between random cities.
+*
+* REPORT:
+*       QPS of answered requests, p50 / p99 / max latency of the 200 answers, and the number of 503 answers (requests shed
+*       by the server's in-flight limit).
+*
+* Usage: java RoutingLoadGenerator [graph file] [clients] [seconds] [maxInFlight]
+*       Starts an embedded server on a free port, so the numbers include the loopback HTTP stack but no network.
+* */
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class RoutingLoadGenerator {
+
+    static final int BATCH_PAIRS = 50;
+
+    // Latencies and status counts of one client thread
+    private static final class ClientResult {
+        long[] latencies = new long[1024];
+        int count;
+        int rejected;
+        int failed;
+
+        void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+    }
+
+    // Method to run one client until the deadline
+    private static ClientResult runClient(HttpClient client, String baseUrl, int[] cityIds, long deadline) {
+        ClientResult result = new ClientResult();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            HttpRequest request = nextRequest(baseUrl, cityIds, random);
+            long start = System.nanoTime();
+            try {
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                long elapsed = System.nanoTime() - start;
+                if (status == 200) {
+                    result.record(elapsed);
+                } else if (status == 503) {
+                    result.rejected++;
+                } else {
+                    result.failed++;
+                }
+            } catch (IOException e) {
+                result.failed++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static HttpRequest nextRequest(String baseUrl, int[] cityIds, ThreadLocalRandom random) {
+        int kind = random.nextInt(100);
+        int from = cityIds[random.nextInt(cityIds.length)];
+        int to = cityIds[random.nextInt(cityIds.length)];
+        if (kind < 80) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/distance?from=" + from + "&to=" + to)).build();
+        }
+        if (kind < 95) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/reachable?from=" + from + "&to=" + to)).build();
+        }
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < BATCH_PAIRS; i++) {
+            body.append(cityIds[random.nextInt(cityIds.length)]).append(' ')
+                    .append(cityIds[random.nextInt(cityIds.length)]).append('\n');
+        }
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString())).build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Path to the dataset, number of client threads, run time and the server's in-flight limit
+        String filePath = args.length > 0 ? args[0] : "reachability.txt";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int maxInFlight = args.length > 3 ? Integer.parseInt(args[3]) : RoutingServer.DEFAULT_MAX_IN_FLIGHT;
+
+        CsrGraph graph = GraphReader.loadGraph(filePath);
+        int[] cityIds = new int[graph.nodeCount()];
+        for (int i = 0; i < cityIds.length; i++) {
+            cityIds[i] = graph.nodeId(i);
+        }
+        ShortestPathCache cache = new ShortestPathCache(1 << 16, 0, Runtime.getRuntime().availableProcessors());
+        RoutingService service = new RoutingService(graph, cache);
+        ExecutorService clientThreads = Executors.newFixedThreadPool(clients);
+        try (RoutingServer server = new RoutingServer(service, 0, maxInFlight)) {
+            server.start();
+            String baseUrl = "http://localhost:" + server.port();
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).executor(clientThreads).build();
+
+            // Warm-up, including the one-off centrality ranking
+            client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/centrality?k=5")).build(), HttpResponse.BodyHandlers.ofString());
+            long warmUpDeadline = System.nanoTime() + 1_000_000_000L;
+            runClient(client, baseUrl, cityIds, warmUpDeadline);
+
+            long start = System.nanoTime();
+            long deadline = start + seconds * 1_000_000_000L;
+            ExecutorService loadThreads = Executors.newFixedThreadPool(clients);
+            Future<?>[] futures = new Future<?>[clients];
+            for (int c = 0; c < clients; c++) {
+                futures[c] = loadThreads.submit(() -> runClient(client, baseUrl, cityIds, deadline));
+            }
+            long[] latencies = new long[0];
+            int answered = 0;
+            int rejected = 0;
+            int failed = 0;
+            for (Future<?> future : futures) {
+                ClientResult result = (ClientResult) future.get();
+                latencies = Arrays.copyOf(latencies, answered + result.count);
+                System.arraycopy(result.latencies, 0, latencies, answered, result.count);
+                answered += result.count;
+                rejected += result.rejected;
+                failed += result.failed;
+            }
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+            loadThreads.shutdown();
+            Arrays.sort(latencies);
+
+            System.out.printf("%d clients for %.1f s against %s (%s, max %d in flight)%n", clients, elapsedSeconds, baseUrl,
+                    server.usesVirtualThreads() ? "virtual threads" : "thread pool", maxInFlight);
+            System.out.printf("  %d answered: %.0f QPS%n", answered, answered / elapsedSeconds);
+            if (answered > 0) {
+                System.out.printf("  latency p50 %.3f ms, p99 %.3f ms, max %.3f ms%n", percentile(latencies, 0.50) / 1e6,
+                        percentile(latencies, 0.99) / 1e6, latencies[answered - 1] / 1e6);
+            }
+            System.out.printf("  %d rejected with 503, %d failed%n", rejected, failed);
+            System.out.println("  cache: " + cache);
+        } finally {
+            clientThreads.shutdown();
+        }
+    }
+
+    // Nearest-rank percentile of sorted values
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+    /*
+     * Time Complexity: O(requests) on the client side plus O(R log R) to sort R latencies
+     * Space Complexity: O(R)
+     * */
+}
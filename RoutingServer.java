@@ -0,0 +1,318 @@
+/*
+* **** LOCAL HTTP ROUTING SERVER ****
+* Serves RoutingService queries over HTTP with the JDK's built-in server (com.sun.net.httpserver), bound to localhost.
+*
+* ENDPOINTS (GET, JSON answers, city IDs):
+*       /distance?from=A&to=B     {"from":A,"to":B,"distance":d}        d is null when B cannot be reached
+*       /reachable?from=A&to=B    {"from":A,"to":B,"reachable":true}
+*       /centrality?k=10          {"nodes":[{"id":..,"score":..},..]}   top-k betweenness, sampled once per graph
+*       /batch (POST)             body: one "from to" pair per line, answer: one distance per line (-1 if unreachable);
+*                                 the pairs are grouped by source so each source is searched once (see
+*                                 RoutingService.shortestDistances), at most MAX_BATCH pairs per request
+*
+* THREADS:
+*       Every request runs on its own virtual thread when the JDK has them (Java 21+), found by reflection so the code still
+*       compiles and runs on older JDKs, which fall back to a fixed pool of 2 * cores platform threads.
+*
+* BACKPRESSURE:
+*       At most maxInFlight requests are admitted at once (a Semaphore). Admission happens when the server hands the exchange
+*       to the executor, not inside the handler, so requests cannot pile up unseen in the executor's queue. A request arriving
+*       while all permits are taken is answered right away on the dispatcher thread with 503 and a Retry-After header instead
+*       of queueing without bound, so latency stays bounded under overload and clients can back off.
+*
+* Usage: java RoutingServer [graph file] [port]
+* */
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+public class RoutingServer implements AutoCloseable {
+
+    // The JDK server reads this once, when its first instance is created: without TCP_NODELAY every small response waits
+    // for Nagle's algorithm and the client's delayed ACK (~40 ms per request). An explicit -D setting is kept.
+    static {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    static final int DEFAULT_MAX_IN_FLIGHT = 256;
+    static final int MAX_BATCH = 100000;
+    // Sources sampled for the centrality ranking
+    static final int CENTRALITY_SAMPLES = 512;
+
+    private final RoutingService service;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final Semaphore inFlight;
+    // Set while a rejected exchange is being answered on the dispatcher thread
+    private final ThreadLocal<Boolean> shedding = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    // Centrality ranking and the graph it was computed for
+    private volatile CsrGraph centralityGraph;
+    private volatile BetweennessEstimate centrality;
+
+    private final LongAdder served = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    // Constructor that binds the server to localhost:port (0 picks a free port); call start() to accept requests
+    public RoutingServer(RoutingService service, int port, int maxInFlight) throws IOException {
+        this.service = service;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : Executors.newFixedThreadPool(2 * Runtime.getRuntime().availableProcessors());
+        server.setExecutor(this::admit);
+        server.createContext("/distance", guarded(this::distance));
+        server.createContext("/reachable", guarded(this::reachable));
+        server.createContext("/centrality", guarded(this::centrality));
+        server.createContext("/batch", guarded(this::batch));
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() if this JDK has it, otherwise null
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    // Runs an exchange on the executor if a permit is free, otherwise answers it with 503 on the calling thread
+    private void admit(Runnable exchange) {
+        if (inFlight.tryAcquire()) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        exchange.run();
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                inFlight.release();
+                throw e;
+            }
+            return;
+        }
+        shedding.set(Boolean.TRUE);
+        try {
+            exchange.run();
+        } finally {
+            shedding.set(Boolean.FALSE);
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    // Port the server listens on
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    // Whether requests run on virtual threads
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public long servedCount() {
+        return served.sum();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    // A request handler that may fail with a bad request
+    private interface Endpoint {
+        String handle(HttpExchange exchange) throws IOException;
+    }
+
+    // Wraps an endpoint with the overload and error answers
+    private HttpHandler guarded(Endpoint endpoint) {
+        return exchange -> {
+            try (exchange) {
+                if (shedding.get()) {
+                    rejected.increment();
+                    exchange.getResponseHeaders().set("Retry-After", "1");
+                    respond(exchange, 503, "{\"error\":\"overloaded\"}");
+                    return;
+                }
+                try {
+                    respond(exchange, 200, endpoint.handle(exchange));
+                    served.increment();
+                } catch (IllegalArgumentException e) {
+                    respond(exchange, 400, "{\"error\":\"" + e.getMessage().replace("\"", "'") + "\"}");
+                }
+            }
+        };
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", body.startsWith("{") ? "application/json" : "text/plain");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private String distance(HttpExchange exchange) {
+        Map<String, String> query = query(exchange, "GET");
+        int from = intParameter(query, "from");
+        int to = intParameter(query, "to");
+        int distance = service.shortestDistance(from, to);
+        return "{\"from\":" + from + ",\"to\":" + to + ",\"distance\":" + (distance == Integer.MAX_VALUE ? "null" : distance) + "}";
+    }
+
+    private String reachable(HttpExchange exchange) {
+        Map<String, String> query = query(exchange, "GET");
+        int from = intParameter(query, "from");
+        int to = intParameter(query, "to");
+        return "{\"from\":" + from + ",\"to\":" + to + ",\"reachable\":" + service.isReachable(from, to) + "}";
+    }
+
+    private String centrality(HttpExchange exchange) {
+        Map<String, String> query = query(exchange, "GET");
+        int k = query.containsKey("k") ? intParameter(query, "k") : 10;
+        BetweennessEstimate estimate = centralityEstimate();
+        StringBuilder json = new StringBuilder("{\"samples\":").append(estimate.samples).append(",\"nodes\":[");
+        int[] top = estimate.topNodes(Math.max(k, 0));
+        for (int i = 0; i < top.length; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\":").append(estimate.nodeIds[top[i]])
+                    .append(",\"score\":").append(estimate.scores[top[i]]).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    // Sampled betweenness of the current graph, computed on the first request after the graph changed
+    private BetweennessEstimate centralityEstimate() {
+        CsrGraph graph = service.graph();
+        if (centralityGraph != graph) {
+            synchronized (this) {
+                if (centralityGraph != graph) {
+                    centrality = new NetworkAnalysis(graph).estimateBetweennessCentrality(CENTRALITY_SAMPLES, 0.95, 1,
+                            Runtime.getRuntime().availableProcessors());
+                    centralityGraph = graph;
+                }
+            }
+        }
+        return centrality;
+    }
+
+    private String batch(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            throw new IllegalArgumentException("Use POST with one \"from to\" pair per line");
+        }
+        int[] sources = new int[64];
+        int[] destinations = new int[64];
+        int pairs = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (pairs == MAX_BATCH) {
+                    throw new IllegalArgumentException("At most " + MAX_BATCH + " pairs per batch");
+                }
+                String[] parts = line.split("\\s+");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Expected \"from to\": " + line);
+                }
+                if (pairs == sources.length) {
+                    sources = Arrays.copyOf(sources, pairs * 2);
+                    destinations = Arrays.copyOf(destinations, pairs * 2);
+                }
+                sources[pairs] = parseInt(parts[0]);
+                destinations[pairs++] = parseInt(parts[1]);
+            }
+        }
+        int[] distances = service.shortestDistances(Arrays.copyOf(sources, pairs), Arrays.copyOf(destinations, pairs));
+        StringBuilder body = new StringBuilder(pairs * 6);
+        for (int distance : distances) {
+            body.append(distance == Integer.MAX_VALUE ? -1 : distance).append('\n');
+        }
+        return body.toString();
+    }
+
+    // Query parameters of a request, after checking its method
+    private static Map<String, String> query(HttpExchange exchange, String method) {
+        if (!method.equals(exchange.getRequestMethod())) {
+            throw new IllegalArgumentException("Use " + method);
+        }
+        Map<String, String> parameters = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw != null) {
+            for (String pair : raw.split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    parameters.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                            URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return parameters;
+    }
+
+    private static int intParameter(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter " + name);
+        }
+        return parseInt(value);
+    }
+
+    private static int parseInt(String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + value);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Path to the dataset and the port to listen on
+        String filePath = args.length > 0 ? args[0] : "reachability.txt";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+
+        CsrGraph graph = GraphReader.loadGraph(filePath);
+        RoutingService service = new RoutingService(graph, new ShortestPathCache(1 << 16, 0, Runtime.getRuntime().availableProcessors()));
+        RoutingServer server = new RoutingServer(service, port, DEFAULT_MAX_IN_FLIGHT);
+        server.start();
+        System.out.printf("Serving %d cities on http://localhost:%d (%s), e.g. /distance?from=%d&to=%d%n", graph.nodeCount(),
+                server.port(), server.usesVirtualThreads() ? "virtual threads" : "thread pool", graph.nodeId(0),
+                graph.nodeId(graph.nodeCount() - 1));
+    }
+    /*
+     * Time Complexity: per request as the RoutingService query; centrality O(samples * (V + E) log V) once per graph
+     * Space Complexity: O(maxInFlight) pooled query workspaces of O(V) each
+     * */
+}
@@ -0,0 +1,388 @@
+/*
+* **** CONCURRENT ROUTING SERVICE ****
+* One shared, immutable graph answering BFS, shortest distance, maximum flow and reachability queries from many threads.
+*
+* SHARING:
+*       The CsrGraph arrays are never written after the graph is built, so any number of threads can read them without
+*       locking. Everything a query writes (distance labels, heaps, queues, visited marks, residual capacities) lives in a
+*       Workspace that the query borrows from a pool and hands back when it is done, so a query allocates nothing but its
+*       result. A pool rather than a ThreadLocal, because with one virtual thread per request (see RoutingServer) a thread
+*       never runs a second query; the pool grows to the highest number of queries that ran at the same time.
+*
+* REPLACING THE GRAPH:
+*       The graph, its workspaces, its residual graph and its reachability index form a Snapshot behind a volatile reference.
+*       replaceGraph swaps in a new snapshot in one write: queries already running finish on the old graph, new queries see the
+*       new one, and the old workspaces are dropped with the old snapshot. A shared ShortestPathCache notices the new graph and clears itself.
+*
+* Queries take and return city IDs.
+* */
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RoutingService {
+
+    private volatile Snapshot snapshot;
+    private final ShortestPathCache cache;
+
+    // A graph with the pooled state of its queries
+    private static final class Snapshot {
+        final CsrGraph graph;
+        private final ConcurrentLinkedQueue<Workspace> idle = new ConcurrentLinkedQueue<>();
+        // Residual graph of max-flow queries, built on the first one; its capacities are only read, queries copy them
+        private volatile ResidualGraph residualGraph;
+        // Reachability index, built on the first reachability query; stays null when its closure is over the memory budget
+        private volatile ReachabilityIndex reachabilityIndex;
+        private volatile boolean reachabilityIndexBuilt;
+
+        Snapshot(CsrGraph graph) {
+            this.graph = graph;
+        }
+
+        // Takes an idle workspace, or creates one
+        Workspace acquire() {
+            Workspace workspace = idle.poll();
+            return workspace != null ? workspace : new Workspace(graph);
+        }
+
+        void release(Workspace workspace) {
+            idle.offer(workspace);
+        }
+
+        ResidualGraph residualGraph() {
+            ResidualGraph result = residualGraph;
+            if (result == null) {
+                synchronized (this) {
+                    result = residualGraph;
+                    if (result == null) {
+                        residualGraph = result = new ResidualGraph(graph);
+                    }
+                }
+            }
+            return result;
+        }
+
+        ReachabilityIndex reachabilityIndex() {
+            if (!reachabilityIndexBuilt) {
+                synchronized (this) {
+                    if (!reachabilityIndexBuilt) {
+                        try {
+                            reachabilityIndex = ReachabilityIndex.build(graph);
+                        } catch (IllegalArgumentException e) {
+                            reachabilityIndex = null; // Too many components: keep answering with BFS
+                        }
+                        reachabilityIndexBuilt = true;
+                    }
+                }
+            }
+            return reachabilityIndex;
+        }
+    }
+
+    /*
+    * Scratch state of one query at a time. Visited marks use a stamp (a node is visited when mark[node] == stamp), so starting a new
+    * traversal costs nothing instead of clearing a V-sized array.
+    * */
+    private static final class Workspace {
+        final BidirectionalDijkstra shortestPath;
+        final int[] queue;
+        final int[] mark;
+        int stamp;
+        // Allocated on first use: batch search and max-flow engine
+        DijkstraSearch batchSearch;
+        MaxFlow maxFlow;
+
+        Workspace(CsrGraph graph) {
+            shortestPath = new BidirectionalDijkstra(graph);
+            queue = new int[graph.nodeCount()];
+            mark = new int[graph.nodeCount()];
+        }
+
+        // Starts a new traversal: clears every visited mark
+        void newTraversal() {
+            if (++stamp == Integer.MAX_VALUE) {
+                Arrays.fill(mark, 0);
+                stamp = 1;
+            }
+        }
+    }
+
+    // Constructor for a service over a graph, without caching
+    public RoutingService(CsrGraph graph) {
+        this(graph, null);
+    }
+
+    // Constructor for a service over a graph with a shared shortest distance cache (may be null)
+    public RoutingService(CsrGraph graph, ShortestPathCache cache) {
+        this.snapshot = new Snapshot(graph);
+        this.cache = cache;
+    }
+
+    // The graph new queries run on
+    public CsrGraph graph() {
+        return snapshot.graph;
+    }
+
+    // Method to switch every new query to another graph; queries already running finish on the old one
+    public void replaceGraph(CsrGraph graph) {
+        snapshot = new Snapshot(graph);
+        if (cache != null) {
+            cache.checkGraph(graph);
+        }
+    }
+
+    // Method to find the shortest distance between two cities (Integer.MAX_VALUE if unreachable)
+    public int shortestDistance(int sourceNode, int destinationNode) {
+        Snapshot current = snapshot;
+        int source = current.graph.indexOf(sourceNode);
+        int destination = current.graph.indexOf(destinationNode);
+        if (source < 0 || destination < 0) {
+            return sourceNode == destinationNode ? 0 : Integer.MAX_VALUE;
+        }
+        if (cache == null) {
+            return distance(current, source, destination);
+        }
+        int generation = cache.checkGraph(current.graph);
+        if (generation == ShortestPathCache.STALE) {
+            return distance(current, source, destination);
+        }
+        int cached = cache.get(source, destination, generation);
+        if (cached != ShortestPathCache.MISS) {
+            return cached;
+        }
+        int distance = distance(current, source, destination);
+        cache.put(source, destination, distance, generation);
+        return distance;
+    }
+
+    private static int distance(Snapshot current, int source, int destination) {
+        Workspace workspace = current.acquire();
+        try {
+            return workspace.shortestPath.distance(source, destination);
+        } finally {
+            current.release(workspace);
+        }
+    }
+
+    /*
+    * Method to answer a batch of (source, destination) pairs at once: result[i] is the distance from sourceNodes[i] to
+    * destinationNodes[i]. The pairs are grouped by source and each source is searched once, stopping when all of its
+    * destinations are settled.
+    * */
+    public int[] shortestDistances(int[] sourceNodes, int[] destinationNodes) {
+        if (sourceNodes.length != destinationNodes.length) {
+            throw new IllegalArgumentException("Expected as many destinations as sources: " + sourceNodes.length + " != " + destinationNodes.length);
+        }
+        Snapshot current = snapshot;
+        CsrGraph graph = current.graph;
+        int pairs = sourceNodes.length;
+        int[] result = new int[pairs];
+
+        // Pairs of known cities, sorted by source (packed as source << 32 | pair number)
+        long[] bySource = new long[pairs];
+        int known = 0;
+        for (int i = 0; i < pairs; i++) {
+            int source = graph.indexOf(sourceNodes[i]);
+            int destination = graph.indexOf(destinationNodes[i]);
+            if (source < 0 || destination < 0) {
+                result[i] = sourceNodes[i] == destinationNodes[i] ? 0 : Integer.MAX_VALUE;
+            } else {
+                bySource[known++] = ((long) source << 32) | i;
+            }
+        }
+        Arrays.sort(bySource, 0, known);
+
+        Workspace workspace = current.acquire();
+        try {
+            if (workspace.batchSearch == null) {
+                workspace.batchSearch = new DijkstraSearch(graph);
+            }
+            int[] destinations = new int[known];
+            for (int first = 0; first < known; ) {
+                int source = (int) (bySource[first] >>> 32);
+                int last = first;
+                while (last < known && (int) (bySource[last] >>> 32) == source) {
+                    destinations[last - first] = graph.indexOf(destinationNodes[(int) bySource[last]]);
+                    last++;
+                }
+                workspace.batchSearch.runToAll(source, Arrays.copyOf(destinations, last - first));
+                for (int k = first; k < last; k++) {
+                    int pair = (int) bySource[k];
+                    result[pair] = workspace.batchSearch.distance(graph.indexOf(destinationNodes[pair]));
+                }
+                first = last;
+            }
+        } finally {
+            current.release(workspace);
+        }
+        return result;
+    }
+
+    // Method to list the cities reachable from a start city in breadth-first order
+    public int[] bfsOrder(int startNode) {
+        Snapshot current = snapshot;
+        CsrGraph graph = current.graph;
+        int start = graph.indexOf(startNode);
+        if (start < 0) {
+            return new int[]{startNode};
+        }
+        Workspace workspace = current.acquire();
+        try {
+            int reached = breadthFirst(graph, workspace, start, -1);
+            int[] order = new int[reached];
+            for (int i = 0; i < reached; i++) {
+                order[i] = graph.nodeIds[workspace.queue[i]];
+            }
+            return order;
+        } finally {
+            current.release(workspace);
+        }
+    }
+
+    // Method to check whether a city can be reached from another one: O(1) with the snapshot's reachability index, else by BFS
+    public boolean isReachable(int sourceNode, int destinationNode) {
+        Snapshot current = snapshot;
+        int source = current.graph.indexOf(sourceNode);
+        int destination = current.graph.indexOf(destinationNode);
+        if (source < 0 || destination < 0) {
+            return sourceNode == destinationNode;
+        }
+        ReachabilityIndex index = current.reachabilityIndex();
+        if (index != null) {
+            return index.isReachable(source, destination);
+        }
+        Workspace workspace = current.acquire();
+        try {
+            breadthFirst(current.graph, workspace, source, destination);
+            return workspace.mark[destination] == workspace.stamp;
+        } finally {
+            current.release(workspace);
+        }
+    }
+
+    // BFS from start over the workspace queue, stopping once target (-1 for none) is reached; returns the number of nodes queued
+    private static int breadthFirst(CsrGraph graph, Workspace workspace, int start, int target) {
+        workspace.newTraversal();
+        int[] queue = workspace.queue;
+        int[] mark = workspace.mark;
+        int stamp = workspace.stamp;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        mark[start] = stamp;
+        while (head < tail) {
+            int currentNode = queue[head++];
+            if (currentNode == target) {
+                break;
+            }
+            for (int e = graph.offsets[currentNode]; e < graph.offsets[currentNode + 1]; e++) {
+                int neighborNode = graph.targets[e];
+                if (mark[neighborNode] != stamp) {
+                    mark[neighborNode] = stamp;
+                    queue[tail++] = neighborNode;
+                }
+            }
+        }
+        return tail;
+    }
+
+    /*
+    * Method to find the maximum flow between two cities (edge weights are capacities).
+    * Dinic's algorithm (MaxFlow) on the shared residual graph structure; the residual capacities are the workspace engine's own
+    * copy, so concurrent max-flow queries never see each other's flow.
+    * */
+    public int maxFlow(int sourceNode, int sinkNode) {
+        Snapshot current = snapshot;
+        int source = current.graph.indexOf(sourceNode);
+        int sink = current.graph.indexOf(sinkNode);
+        if (source < 0 || sink < 0 || source == sink) {
+            return 0;
+        }
+        ResidualGraph residual = current.residualGraph();
+        Workspace workspace = current.acquire();
+        try {
+            if (workspace.maxFlow == null) {
+                workspace.maxFlow = new MaxFlow(residual);
+            }
+            return (int) Math.min(workspace.maxFlow.dinic(source, sink), Integer.MAX_VALUE);
+        } finally {
+            current.release(workspace);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Path to the dataset and number of queries per thread count
+        String filePath = args.length > 0 ? args[0] : "reachability.txt";
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+
+        CsrGraph graph = GraphReader.loadGraph(filePath);
+        RoutingService service = new RoutingService(graph, new ShortestPathCache(1 << 14, 0, Runtime.getRuntime().availableProcessors()));
+        int numNodes = graph.nodeCount();
+        Random random = new Random(16);
+        int[] sources = new int[queries];
+        int[] destinations = new int[queries];
+        for (int q = 0; q < queries; q++) {
+            sources[q] = graph.nodeId(random.nextInt(numNodes));
+            destinations[q] = graph.nodeId(random.nextInt(numNodes));
+        }
+
+        // Concurrent answers must match the single-threaded algorithms
+        ShortestPath shortestPath = new ShortestPath(graph);
+        FordFulkersonAlgorithm fordFulkerson = new FordFulkersonAlgorithm(graph);
+        int mismatches = 0;
+        for (int q = 0; q < 20; q++) {
+            if (service.shortestDistance(sources[q], destinations[q]) != shortestPath.findShortestDistanceUnidirectional(sources[q], destinations[q])
+                    || service.maxFlow(sources[q], destinations[q]) != fordFulkerson.findMaximumFlow(sources[q], destinations[q])) {
+                mismatches++;
+            }
+        }
+        System.out.println("Mismatches with the single-threaded algorithms: " + mismatches);
+
+        // Throughput of a query mix with 1, 2, 4, ... threads up to the core count
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; ; threads = Math.min(threads * 2, processors)) {
+            System.out.printf("%2d threads: %,.0f queries/s%n", threads, throughput(service, sources, destinations, threads));
+            if (threads == processors) {
+                break;
+            }
+        }
+    }
+
+    // Runs the query mix on `threads` threads (each takes the next query from a shared counter), returns queries per second
+    private static double throughput(RoutingService service, int[] sources, int[] destinations, int threads) throws InterruptedException {
+        AtomicLong next = new AtomicLong();
+        Thread[] workers = new Thread[threads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                for (long q = next.getAndIncrement(); q < sources.length; q = next.getAndIncrement()) {
+                    int i = (int) q;
+                    switch (i % 4) {
+                        case 0 -> service.shortestDistance(sources[i], destinations[i]);
+                        case 1 -> service.isReachable(sources[i], destinations[i]);
+                        case 2 -> service.bfsOrder(sources[i]);
+                        default -> {
+                            if (i % 64 == 3) {
+                                service.maxFlow(sources[i], destinations[i]);
+                            } else {
+                                service.shortestDistance(destinations[i], sources[i]);
+                            }
+                        }
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return sources.length / ((System.nanoTime() - start) / 1e9);
+    }
+    /*
+     * Time Complexity: per query as the underlying algorithm (BFS O(V + E), bidirectional Dijkstra O((V + E) log V),
+     *                  Dinic O(V^2 * E)); no locking on the read path
+     * Space Complexity: O(V) per pooled workspace, plus O(E) residual capacities per workspace that ran a max-flow query
+     * */
+}
@@ -1,93 +1,252 @@
 /*
 * ****FINDING SHORTEST PATH FROM ONE NODE TO ANOTHER ****
-* I am using Dijkstra's Algorithm to find the shortest path between two nodes.
-* */import java.util.*;
+* I am using Dijkstra's Algorithm to find the shortest path between two nodes (searching from both ends at once).
+* */
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 public class ShortestPath extends GraphReader {
 
+    // Number of landmarks chosen when goal-directed search is used without landmark tables
+    static final int DEFAULT_LANDMARKS = 16;
+
     public ShortestPath(String filePath) {
         super(filePath);
     }
 
-    // Method to find the shortest distance between two nodes using Dijkstra's algorithm
+    // Constructor that accepts an already loaded graph
+    public ShortestPath(CsrGraph graph) {
+        super(graph);
+    }
+
+    // Reusable search state, created on the first query
+    private BidirectionalDijkstra bidirectionalSearch;
+    private DijkstraSearch dijkstraSearch;
+    private AltSearch altSearch;
+    // Distance cache consulted by findShortestDistance when set
+    private ShortestPathCache cache;
+    // Preprocessed hierarchy used by findShortestDistance when set
+    private ContractionHierarchy contractionHierarchy;
+
+    // Method to answer findShortestDistance from a contraction hierarchy of this graph (null goes back to bidirectional Dijkstra)
+    public void setContractionHierarchy(ContractionHierarchy hierarchy) {
+        if (hierarchy != null && !hierarchy.matches(csr)) {
+            throw new IllegalArgumentException("Contraction hierarchy was built for a different graph");
+        }
+        this.contractionHierarchy = hierarchy;
+    }
+
+    /*
+    * Method to find the shortest distance between two nodes.
+    * Uses bidirectional Dijkstra (see BidirectionalDijkstra): one search from the source over the out-edges and one from the
+    * destination over the in-edges, stopping once the two searches prove that no shorter path can exist.
+    * The search state is kept between calls, so each query only pays for the nodes it explores.
+    * With a contraction hierarchy set, the query is an upward search in the hierarchy instead (see ContractionHierarchy).
+    * With a cache set, repeated pairs and the hottest origins are answered from it (see ShortestPathCache).
+    * */
     public int findShortestDistance(int sourceNode, int destinationNode) {
-        // Initialize a map to store distances from the source node to each node in the graph
-        Map<Integer, Integer> distances = new HashMap<>();
-        // Initialize a priority queue to store nodes based on their tentative distances from the source node
-        PriorityQueue<NodeDistancePair> pq = new PriorityQueue<>();
-
-        // Initializing distances to all nodes as infinity
-//        System.out.println("Keys: "+adjacencyList.keySet());
-        for (int node : adjacencyList.keySet()) {
-            distances.put(node, Integer.MAX_VALUE);
-        }
-//        System.out.println("Distance: " + distances);
-        // Set distance to the source node as 0
-        distances.put(sourceNode, 0);
-//        System.out.println("Source Distance: " + distances);
-        pq.offer(new NodeDistancePair(sourceNode, 0));
-
-
-        /*
-        * The method enter a loop that continues until the priority queue is empty.
-        * In each Iteration, it extracts the node with the shortest tentative distance from the priority queue.
-        * If the extracted node is the destination node, the algorithm terminates, and the shortest distance is returned.
-        * Otherwise, for each edge outgoing from the current node, it calculates the new distance to the adjacent node by adding edge weight to current distance.
-        * If the new distance is less than the distance currently stored for the adjacent node, it updates the distance and adds
-        * - the adjacent node to the priority queue with the new distance
-        * This process continues until all reachable nodes are visited or until the destination node is reached.
-        * */
-        // Perform Dijkstra's algorithm
-        while (!pq.isEmpty()) {
-            NodeDistancePair current = pq.poll();
-            int currentNode = current.node;
-            int currentDistance = current.distance;
-
-            // Stop the algorithm if the destination node is reached
-            if (currentNode == destinationNode) {
-                return currentDistance;
+        int source = csr.indexOf(sourceNode);
+        int destination = csr.indexOf(destinationNode);
+        if (source < 0 || destination < 0) {
+            // A node without any edge can only reach itself
+            return sourceNode == destinationNode ? 0 : Integer.MAX_VALUE;
+        }
+        if (cache == null) {
+            return distanceByIndex(source, destination);
+        }
+        int generation = cache.checkGraph(csr);
+        if (generation == ShortestPathCache.STALE) {
+            return distanceByIndex(source, destination);
+        }
+        int cached = cache.get(source, destination, generation);
+        if (cached != ShortestPathCache.MISS) {
+            return cached;
+        }
+        int distance = distanceByIndex(source, destination);
+        cache.put(source, destination, distance, generation);
+        if (cache.wantsTree(source)) {
+            if (dijkstraSearch == null) {
+                dijkstraSearch = new DijkstraSearch(csr);
             }
+            dijkstraSearch.run(source);
+            cache.putTree(source, dijkstraSearch.distance.clone(), generation);
+        }
+        return distance;
+    }
+
+    // Method to use a (possibly shared) distance cache for findShortestDistance, null turns caching off
+    public void setCache(ShortestPathCache cache) {
+        this.cache = cache;
+    }
+
+    // Shortest distance between two dense indices with the fastest engine available
+    private int distanceByIndex(int source, int destination) {
+        if (contractionHierarchy != null) {
+            return contractionHierarchy.distance(source, destination);
+        }
+        if (bidirectionalSearch == null) {
+            bidirectionalSearch = new BidirectionalDijkstra(csr);
+        }
+        return bidirectionalSearch.distance(source, destination);
+    }
+
+    /*
+    * Method to find the shortest distance with the classic one-directional Dijkstra's algorithm.
+    * It settles nodes in order of distance from the source and stops when the destination is settled.
+    * */
+    public int findShortestDistanceUnidirectional(int sourceNode, int destinationNode) {
+        int source = csr.indexOf(sourceNode);
+        int destination = csr.indexOf(destinationNode);
+        if (source < 0 || destination < 0) {
+            return sourceNode == destinationNode ? 0 : Integer.MAX_VALUE;
+        }
+        if (dijkstraSearch == null) {
+            dijkstraSearch = new DijkstraSearch(csr);
+        }
+        return dijkstraSearch.runTo(source, destination);
+    }
+
+    /*
+    * Method to find a whole table of distances at once: result[i * destinationNodes.length + j] is the distance from
+    * sourceNodes[i] to destinationNodes[j]. One search per source covers all destinations and the sources run in parallel;
+    * with a contraction hierarchy set, bucket-based many-to-many search is used instead (see DistanceTable).
+    * */
+    public int[] findShortestDistances(int[] sourceNodes, int[] destinationNodes) {
+        int[] origins = new int[sourceNodes.length];
+        int[] destinations = new int[destinationNodes.length];
+        boolean unknown = false;
+        for (int i = 0; i < origins.length; i++) {
+            origins[i] = csr.indexOf(sourceNodes[i]);
+            unknown |= origins[i] < 0;
+        }
+        for (int j = 0; j < destinations.length; j++) {
+            destinations[j] = csr.indexOf(destinationNodes[j]);
+            unknown |= destinations[j] < 0;
+        }
+        if (unknown) {
+            // Cities without edges are left out of the searches and patched in afterwards
+            int[] table = findShortestDistances(knownNodes(sourceNodes), knownNodes(destinationNodes));
+            return expandTable(table, sourceNodes, destinationNodes);
+        }
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        if (contractionHierarchy != null) {
+            return DistanceTable.manyToMany(contractionHierarchy, origins, destinations, parallelism);
+        }
+        return DistanceTable.manyToMany(csr, origins, destinations, parallelism);
+    }
+
+    // The IDs that are nodes of the graph, in order
+    private int[] knownNodes(int[] nodeIds) {
+        return Arrays.stream(nodeIds).filter(id -> csr.indexOf(id) >= 0).toArray();
+    }
 
-            if (adjacencyList.containsKey(currentNode)) {
-                List<Edge> edges = adjacencyList.get(currentNode);
-
-                // Now you can safely iterate over the list of edges
-                for (Edge edge : edges) {
-                    int adjacentNode = edge.toNodeId;
-                    int weight = Math.abs(edge.weight);
-//                    System.out.println("CurrentNode edge: "+ adjacentNode);
-                    int newDistance = currentDistance + weight;
-//                    System.out.println("New Distance: " + newDistance);
-//                    System.out.println("old dis: "+ distances.get(adjacentNode));
-                    if (newDistance < distances.get(adjacentNode)) {
-                        distances.put(adjacentNode, newDistance);
-                        pq.offer(new NodeDistancePair(adjacentNode, newDistance));
-                    }
+    // Widens a table over the known IDs to all requested IDs: an unknown city only reaches itself
+    private int[] expandTable(int[] knownTable, int[] sourceNodes, int[] destinationNodes) {
+        int knownColumns = (int) Arrays.stream(destinationNodes).filter(id -> csr.indexOf(id) >= 0).count();
+        int[] table = new int[sourceNodes.length * destinationNodes.length];
+        int knownRow = 0;
+        for (int i = 0; i < sourceNodes.length; i++) {
+            boolean sourceKnown = csr.indexOf(sourceNodes[i]) >= 0;
+            int knownColumn = 0;
+            for (int j = 0; j < destinationNodes.length; j++) {
+                boolean destinationKnown = csr.indexOf(destinationNodes[j]) >= 0;
+                int cell = i * destinationNodes.length + j;
+                if (sourceKnown && destinationKnown) {
+                    table[cell] = knownTable[knownRow * knownColumns + knownColumn];
+                } else {
+                    table[cell] = sourceNodes[i] == destinationNodes[j] ? 0 : Integer.MAX_VALUE;
                 }
-            } else {
-                // Handle the case where the map does not contain the key
-                System.err.println("No edges found for node " + currentNode);
+                if (destinationKnown) {
+                    knownColumn++;
+                }
+            }
+            if (sourceKnown) {
+                knownRow++;
             }
         }
+        return table;
+    }
 
-        // If destination node is not reachable
-        return Integer.MAX_VALUE;
+    // Method to find the cities on a shortest path from source to destination (both included), empty if there is none
+    public int[] findShortestPath(int sourceNode, int destinationNode) {
+        int source = csr.indexOf(sourceNode);
+        int destination = csr.indexOf(destinationNode);
+        if (source < 0 || destination < 0) {
+            return sourceNode == destinationNode ? new int[]{sourceNode} : new int[0];
+        }
+        if (dijkstraSearch == null) {
+            dijkstraSearch = new DijkstraSearch(csr);
+        }
+        dijkstraSearch.runTo(source, destination);
+        return toNodeIds(dijkstraSearch.pathTo(destination));
     }
 
-    // Class to represent a pair of node and its distance
-    class NodeDistancePair implements Comparable<NodeDistancePair> {
-        int node;
-        int distance;
+    /*
+    * Method to find up to k routes from source to destination, shortest first: the shortest path followed by the next
+    * shortest loop-free alternatives (Yen's algorithm, see KShortestPaths). Routes are lists of city IDs.
+    * */
+    public List<int[]> findAlternativeRoutes(int sourceNode, int destinationNode, int k) {
+        List<int[]> routes = new ArrayList<>();
+        int source = csr.indexOf(sourceNode);
+        int destination = csr.indexOf(destinationNode);
+        if (source < 0 || destination < 0) {
+            if (sourceNode == destinationNode && k > 0) {
+                routes.add(new int[]{sourceNode});
+            }
+            return routes;
+        }
+        try (KShortestPaths paths = new KShortestPaths(csr, source, destination, Runtime.getRuntime().availableProcessors())) {
+            while (routes.size() < k && paths.hasNext()) {
+                routes.add(toNodeIds(paths.next()));
+            }
+        }
+        return routes;
+    }
 
-        public NodeDistancePair(int node, int distance) {
-            this.node = node;
-            this.distance = distance;
+    // Converts a path of dense indices into city IDs
+    private int[] toNodeIds(int[] path) {
+        int[] ids = new int[path.length];
+        for (int i = 0; i < path.length; i++) {
+            ids[i] = csr.nodeId(path[i]);
         }
+        return ids;
+    }
+
+    // Method to use these landmark tables for findShortestDistanceGoalDirected
+    public void setLandmarkIndex(LandmarkIndex index) {
+        this.altSearch = new AltSearch(csr, index);
+    }
 
-        @Override
-        public int compareTo(NodeDistancePair other) {
-            return Integer.compare(this.distance, other.distance);
+    /*
+    * Method to find the shortest distance with goal-directed A* search (ALT, see AltSearch and LandmarkIndex).
+    * Landmark lower bounds steer the search towards the destination, so it settles far fewer nodes than Dijkstra.
+    * Without landmark tables set, DEFAULT_LANDMARKS landmarks are chosen with the avoid heuristic on the first query.
+    * */
+    public int findShortestDistanceGoalDirected(int sourceNode, int destinationNode) {
+        int source = csr.indexOf(sourceNode);
+        int destination = csr.indexOf(destinationNode);
+        if (source < 0 || destination < 0) {
+            return sourceNode == destinationNode ? 0 : Integer.MAX_VALUE;
         }
+        if (altSearch == null) {
+            setLandmarkIndex(LandmarkIndex.build(csr, DEFAULT_LANDMARKS, LandmarkIndex.Selection.AVOID, 1));
+        }
+        return altSearch.distance(source, destination);
+    }
+
+    // Number of nodes settled by the last bidirectional / unidirectional / goal-directed query
+    int lastBidirectionalSettledCount() {
+        return bidirectionalSearch == null ? 0 : bidirectionalSearch.settledCount();
+    }
+
+    int lastUnidirectionalSettledCount() {
+        return dijkstraSearch == null ? 0 : dijkstraSearch.settledCount();
+    }
+
+    int lastGoalDirectedSettledCount() {
+        return altSearch == null ? 0 : altSearch.settledCount();
     }
 
     // Main method for testing
@@ -109,11 +268,38 @@ public class ShortestPath extends GraphReader {
             System.out.println("No path exists from node " + sourceNode + " to node " + destinationNode);
         } else {
             System.out.println("Shortest distance from node " + sourceNode + " to node " + destinationNode + " is: " + shortestDistance);
+            System.out.println("Route: " + Arrays.toString(shortestPathFinder.findShortestPath(sourceNode, destinationNode)));
+            for (int[] route : shortestPathFinder.findAlternativeRoutes(sourceNode, destinationNode, 3)) {
+                System.out.println("Alternative: " + Arrays.toString(route));
+            }
+        }
+
+        // Compare the search effort of both directions on random pairs
+        Random random = new Random(1);
+        long bidirectionalSettled = 0;
+        long unidirectionalSettled = 0;
+        long goalDirectedSettled = 0;
+        int mismatches = 0;
+        int numNodes = shortestPathFinder.csr.nodeCount();
+        for (int i = 0; i < 1000; i++) {
+            int from = shortestPathFinder.csr.nodeId(random.nextInt(numNodes));
+            int to = shortestPathFinder.csr.nodeId(random.nextInt(numNodes));
+            int expected = shortestPathFinder.findShortestDistanceUnidirectional(from, to);
+            if (shortestPathFinder.findShortestDistance(from, to) != expected
+                    || shortestPathFinder.findShortestDistanceGoalDirected(from, to) != expected) {
+                mismatches++;
+            }
+            bidirectionalSettled += shortestPathFinder.lastBidirectionalSettledCount();
+            unidirectionalSettled += shortestPathFinder.lastUnidirectionalSettledCount();
+            goalDirectedSettled += shortestPathFinder.lastGoalDirectedSettledCount();
         }
+        System.out.println("1000 random queries: " + mismatches + " mismatches, settled nodes bidirectional " + bidirectionalSettled
+                + " vs unidirectional " + unidirectionalSettled + " vs goal-directed (ALT) " + goalDirectedSettled);
 
     }
     /*
      * Time Complexity: O((V + E) * log V) --> Priority queue takes O(log v), and each edge is processed once O(V + E)
-     * Space Complexity: O(V)
+     *                  (worst case, the two searches usually meet after exploring a small part of the graph)
+     * Space Complexity: O(V), allocated once per ShortestPath instance
      * */
 }
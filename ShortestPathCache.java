@@ -0,0 +1,673 @@
+/*
+* **** SHORTEST DISTANCE CACHE (W-TinyLFU) ****
+* Bounded, concurrent cache of point-to-point distances for skewed query traffic.
+*
+* STORAGE:
+*       The (source, destination) pair of dense indices is packed into one long key. Entries live in primitive arrays
+*       (long keys, int values, int prev/next links) with an open-addressing index, so nothing is boxed or allocated per entry.
+*       The cache is split into segments by key hash; each segment has its own lock and its own policy state.
+*
+* POLICY (W-TinyLFU):
+*       window    (~1% of a segment): plain LRU that new entries enter, so bursts of new keys get a chance to prove themselves.
+*       probation (main, LRU):         entries that left the window, evicted first.
+*       protected (80% of main, LRU):  entries hit again while in probation; overflow goes back to probation.
+*       When the window is full its LRU entry (the candidate) competes with the LRU entry of probation (the victim): a
+*       count-min sketch of 4-bit counters estimates how often each key was asked for recently, and the candidate is only
+*       admitted if it is more frequent. One-off queries therefore never push out the frequent pairs. The counters are
+*       halved every 10 * capacity increments, so the frequencies follow changes in the traffic.
+*
+* HOT ORIGIN TREES (optional):
+*       Origins are counted in a second sketch. Once an origin was asked for at least TREE_MIN_FREQUENCY times and is more
+*       frequent than the coldest origin holding a tree, ShortestPath computes its complete distance array (one Dijkstra)
+*       and stores it here; every later query from that origin is an array read. Each tree costs 4 * V bytes.
+*
+* INVALIDATION:
+*       The cache is bound to one graph (by identity, then by CsrGraph.fingerprint). checkGraph(graph) rebinds it when a new
+*       graph shows up, clearing everything if the fingerprint changed, and returns the generation of that binding; every
+*       rebind or clear starts a new generation. get, put and putTree take the generation the query was bound under and
+*       compare it, under the lock of the segment (or the tree lock), with the generation of the contents they touch: a
+*       query racing with a graph change can neither store a distance into nor read one from the other graph's entries.
+*       A graph that was replaced never rebinds the cache: checkGraph returns STALE for it, and its queries bypass the
+*       cache, so queries still running on an old snapshot cannot clear the new graph's entries.
+* */
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ShortestPathCache {
+
+    // Returned by get when the pair is not cached
+    public static final int MISS = Integer.MIN_VALUE;
+    // Returned by checkGraph for a graph that was replaced by a newer one: do not use the cache
+    public static final int STALE = -1;
+    // Fewest requests before an origin may get a distance tree
+    static final int TREE_MIN_FREQUENCY = 8;
+    // Smallest segment, below this fewer segments are used
+    private static final int MIN_SEGMENT_CAPACITY = 64;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+
+    // Hot origin trees: replaced as a whole (copy on write) under treeLock, read without locking
+    private final Object treeLock = new Object();
+    private final int maxTrees;
+    private volatile Trees trees = new Trees(new int[0], new int[0][], 0);
+    private final FrequencySketch originSketch;
+
+    // Graph the entries belong to, with the generation of that binding (replaced as a whole under treeLock)
+    private volatile Binding binding = new Binding(null, 0, 0);
+    // Graphs the cache was bound to before the current one, which may never bind it again
+    private final Map<CsrGraph, Boolean> retired = new WeakHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder treeHits = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private static final class Binding {
+        final CsrGraph graph;
+        final long fingerprint;
+        final int generation;
+
+        Binding(CsrGraph graph, long fingerprint, int generation) {
+            this.graph = graph;
+            this.fingerprint = fingerprint;
+            this.generation = generation;
+        }
+    }
+
+    // Origins with a cached distance tree and their distance arrays, computed under one generation
+    private static final class Trees {
+        final int[] origins;
+        final int[][] distances;
+        final int generation;
+
+        Trees(int[] origins, int[][] distances, int generation) {
+            this.origins = origins;
+            this.distances = distances;
+            this.generation = generation;
+        }
+
+        int find(int origin) {
+            for (int t = 0; t < origins.length; t++) {
+                if (origins[t] == origin) {
+                    return t;
+                }
+            }
+            return -1;
+        }
+    }
+
+    // Constructor for a cache of about `capacity` pairs and up to `hotOrigins` distance trees, used by `concurrency` threads
+    public ShortestPathCache(int capacity, int hotOrigins, int concurrency) {
+        if (capacity < 1 || hotOrigins < 0) {
+            throw new IllegalArgumentException("capacity must be positive and hotOrigins not negative: " + capacity + ", " + hotOrigins);
+        }
+        int segmentCount = Integer.highestOneBit(Math.max(1, Math.min(4 * Math.max(concurrency, 1), capacity / MIN_SEGMENT_CAPACITY)));
+        segments = new Segment[segmentCount];
+        segmentMask = segmentCount - 1;
+        for (int s = 0; s < segmentCount; s++) {
+            segments[s] = new Segment((capacity + segmentCount - 1) / segmentCount, evictions);
+        }
+        maxTrees = hotOrigins;
+        originSketch = new FrequencySketch(Math.max(hotOrigins * 64, 64));
+    }
+
+    // Packs a (source, destination) pair of dense indices into a key
+    static long key(int source, int destination) {
+        return ((long) source << 32) | (destination & 0xFFFFFFFFL);
+    }
+
+    /*
+    * Method to bind the cache to a graph, clearing it when the graph is not the one the entries were computed for.
+    * Returns the generation to pass to get / put / putTree for queries on this graph, or STALE if the graph was replaced by
+    * a newer one (the cache then stays bound to the newer graph and must not be used for the query).
+    * */
+    public int checkGraph(CsrGraph current) {
+        Binding bound = binding;
+        if (current == bound.graph) {
+            return bound.generation;
+        }
+        synchronized (treeLock) {
+            bound = binding;
+            if (current == bound.graph) {
+                return bound.generation;
+            }
+            if (retired.containsKey(current)) {
+                return STALE;
+            }
+            long fingerprint = current.fingerprint();
+            if (bound.graph != null) {
+                retired.put(bound.graph, Boolean.TRUE);
+            }
+            rebind(current, fingerprint, bound.graph != null && fingerprint != bound.fingerprint);
+            return binding.generation;
+        }
+    }
+
+    // Method to drop every cached distance and tree
+    public void invalidate() {
+        synchronized (treeLock) {
+            Binding bound = binding;
+            rebind(bound.graph, bound.fingerprint, true);
+        }
+    }
+
+    // Starts a new generation bound to graph, clearing the contents or carrying them over; callers hold treeLock
+    private void rebind(CsrGraph graph, long fingerprint, boolean clear) {
+        int generation = binding.generation + 1;
+        // Readers compare against the generation of the contents, so the new binding is published first and every
+        // segment only answers the new generation once it is cleared (or carried over)
+        binding = new Binding(graph, fingerprint, generation);
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                if (clear) {
+                    segment.clear();
+                }
+                segment.generation = generation;
+            }
+        }
+        Trees current = trees;
+        trees = clear ? new Trees(new int[0], new int[0][], generation) : new Trees(current.origins, current.distances, generation);
+        if (clear) {
+            originSketch.clear();
+            invalidations.increment();
+        }
+    }
+
+    // Method to look up a pair (dense indices) for a query bound under `generation`; MISS if not cached
+    public int get(int source, int destination, int generation) {
+        int[] tree = tree(source, generation);
+        if (tree != null) {
+            treeHits.increment();
+            hits.increment();
+            return tree[destination];
+        }
+        long key = key(source, destination);
+        Segment segment = segmentFor(key);
+        int value;
+        synchronized (segment) {
+            value = segment.generation == generation ? segment.get(key) : MISS;
+        }
+        if (value == MISS) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    // Method to store a distance computed under `generation`
+    public void put(int source, int destination, int distance, int generation) {
+        long key = key(source, destination);
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            if (generation == segment.generation) {
+                segment.put(key, distance);
+            }
+        }
+    }
+
+    // Distance tree of an origin computed under generation, or null
+    private int[] tree(int origin, int generation) {
+        Trees current = trees;
+        if (current.generation != generation) {
+            return null;
+        }
+        int t = current.find(origin);
+        return t < 0 ? null : current.distances[t];
+    }
+
+    // Method to count a request from an origin; true if it is now hot enough that its distance tree should be cached
+    public boolean wantsTree(int origin) {
+        if (maxTrees == 0) {
+            return false;
+        }
+        synchronized (treeLock) {
+            originSketch.increment(origin);
+            int frequency = originSketch.frequency(origin);
+            Trees current = trees;
+            if (frequency < TREE_MIN_FREQUENCY || current.find(origin) >= 0) {
+                return false;
+            }
+            return current.origins.length < maxTrees || frequency > originSketch.frequency(current.origins[coldestTree(current)]);
+        }
+    }
+
+    // Method to store the complete distance array of an origin computed under `generation`, replacing the coldest tree if full
+    public void putTree(int origin, int[] distances, int generation) {
+        synchronized (treeLock) {
+            Trees current = trees;
+            if (generation != current.generation || maxTrees == 0 || current.find(origin) >= 0) {
+                return;
+            }
+            int count = current.origins.length;
+            int slot = count < maxTrees ? count : coldestTree(current);
+            int[] origins = Arrays.copyOf(current.origins, Math.max(count, slot + 1));
+            int[][] distanceArrays = Arrays.copyOf(current.distances, origins.length);
+            if (slot < count) {
+                evictions.increment();
+            }
+            origins[slot] = origin;
+            distanceArrays[slot] = distances;
+            trees = new Trees(origins, distanceArrays, current.generation);
+        }
+    }
+
+    private int coldestTree(Trees current) {
+        int coldest = 0;
+        for (int t = 1; t < current.origins.length; t++) {
+            if (originSketch.frequency(current.origins[t]) < originSketch.frequency(current.origins[coldest])) {
+                coldest = t;
+            }
+        }
+        return coldest;
+    }
+
+    private Segment segmentFor(long key) {
+        return segments[(int) (FrequencySketch.mix(key) >>> 40) & segmentMask];
+    }
+
+    // Number of cached pairs (without the trees)
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public long treeHitCount() {
+        return treeHits.sum();
+    }
+
+    public long invalidationCount() {
+        return invalidations.sum();
+    }
+
+    // Fraction of lookups answered from the cache
+    public double hitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits %d (%d from trees), misses %d, hit rate %.1f%%, evictions %d, invalidations %d, size %d",
+                hitCount(), treeHitCount(), missCount(), 100 * hitRate(), evictionCount(), invalidationCount(), size());
+    }
+
+    /*
+    * Count-min sketch with four 4-bit counters per key packed 16 to a long; frequency = the smallest of the four counters.
+    * All counters are halved after 10 * capacity increments (aging).
+    * */
+    static final class FrequencySketch {
+        private final long[] table;
+        private final int tableMask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int capacity) {
+            int words = Integer.highestOneBit(Math.max(capacity, 16) * 2 - 1) / 4;
+            table = new long[Math.max(words, 4)];
+            tableMask = table.length - 1;
+            sampleSize = 10 * Math.max(capacity, 16);
+        }
+
+        // 64-bit mixing function (the finalizer of MurmurHash3)
+        static long mix(long x) {
+            x = (x ^ (x >>> 33)) * 0xFF51AFD7ED558CCDL;
+            x = (x ^ (x >>> 33)) * 0xC4CEB9FE1A85EC53L;
+            return x ^ (x >>> 33);
+        }
+
+        void increment(long key) {
+            long hash = mix(key);
+            for (int i = 0; i < 4; i++) {
+                long h = mix(hash + i * 0x9E3779B97F4A7C15L);
+                int word = (int) (h >>> 32) & tableMask;
+                int shift = ((int) h & 15) << 2;
+                if (((table[word] >>> shift) & 15) < 15) {
+                    table[word] += 1L << shift;
+                }
+            }
+            if (++additions >= sampleSize) {
+                for (int w = 0; w < table.length; w++) {
+                    table[w] = (table[w] >>> 1) & 0x7777777777777777L;
+                }
+                additions >>>= 1;
+            }
+        }
+
+        int frequency(long key) {
+            long hash = mix(key);
+            int frequency = 15;
+            for (int i = 0; i < 4; i++) {
+                long h = mix(hash + i * 0x9E3779B97F4A7C15L);
+                int word = (int) (h >>> 32) & tableMask;
+                int shift = ((int) h & 15) << 2;
+                frequency = Math.min(frequency, (int) ((table[word] >>> shift) & 15));
+            }
+            return frequency;
+        }
+
+        void clear() {
+            Arrays.fill(table, 0);
+            additions = 0;
+        }
+    }
+
+    /*
+    * One segment: slots 0 .. capacity hold entries (one spare slot for the admission contest), slots capacity + 1 .. + 3 are
+    * the heads of the three circular LRU lists (least recent after the head, most recent before it).
+    * Not thread-safe, callers lock the segment.
+    * */
+    private static final class Segment {
+        private static final int WINDOW = 0;
+        private static final int PROBATION = 1;
+        private static final int PROTECTED = 2;
+
+        private final int capacity;
+        private final int windowCapacity;
+        private final int protectedCapacity;
+        private final long[] keys;
+        private final int[] values;
+        private final int[] prev;
+        private final int[] next;
+        private final byte[] queue;
+        private final int[] queueSize = new int[3];
+        private final int[] freeSlots;
+        private int freeCount;
+        // Open-addressing index: slot + 1, 0 = empty
+        private final int[] index;
+        private final int indexMask;
+        private final FrequencySketch sketch;
+        private final LongAdder evictions;
+        // Generation the entries belong to
+        int generation;
+
+        Segment(int capacity, LongAdder evictions) {
+            this.capacity = Math.max(capacity, 2);
+            this.windowCapacity = Math.max(1, this.capacity / 100);
+            this.protectedCapacity = (this.capacity - windowCapacity) * 8 / 10;
+            this.evictions = evictions;
+            int slots = this.capacity + 1;
+            keys = new long[slots];
+            values = new int[slots];
+            prev = new int[slots + 3];
+            next = new int[slots + 3];
+            queue = new byte[slots];
+            freeSlots = new int[slots];
+            index = new int[Integer.highestOneBit(slots * 2 - 1) * 2];
+            indexMask = index.length - 1;
+            sketch = new FrequencySketch(this.capacity);
+            clear();
+        }
+
+        void clear() {
+            for (int q = 0; q < 3; q++) {
+                int head = head(q);
+                prev[head] = head;
+                next[head] = head;
+                queueSize[q] = 0;
+            }
+            freeCount = keys.length;
+            for (int s = 0; s < keys.length; s++) {
+                freeSlots[s] = keys.length - 1 - s;
+            }
+            Arrays.fill(index, 0);
+            sketch.clear();
+        }
+
+        int size() {
+            return queueSize[WINDOW] + queueSize[PROBATION] + queueSize[PROTECTED];
+        }
+
+        int get(long key) {
+            sketch.increment(key);
+            int slot = find(key);
+            if (slot < 0) {
+                return MISS;
+            }
+            if (queue[slot] == PROBATION) {
+                // Second hit: promote, demoting the least recent protected entry if protected is full
+                unlink(slot);
+                append(PROTECTED, slot);
+                if (queueSize[PROTECTED] > protectedCapacity) {
+                    int demoted = next[head(PROTECTED)];
+                    unlink(demoted);
+                    append(PROBATION, demoted);
+                }
+            } else {
+                unlink(slot);
+                append(queue[slot], slot);
+            }
+            return values[slot];
+        }
+
+        void put(long key, int value) {
+            int slot = find(key);
+            if (slot >= 0) {
+                values[slot] = value;
+                return;
+            }
+            slot = freeSlots[--freeCount];
+            keys[slot] = key;
+            values[slot] = value;
+            insertIndex(slot);
+            append(WINDOW, slot);
+            if (queueSize[WINDOW] <= windowCapacity) {
+                return;
+            }
+
+            // The window overflows: its least recent entry competes for a place in the main region
+            int candidate = next[head(WINDOW)];
+            unlink(candidate);
+            if (queueSize[PROBATION] + queueSize[PROTECTED] < capacity - windowCapacity) {
+                append(PROBATION, candidate);
+                return;
+            }
+            int victim = queueSize[PROBATION] > 0 ? next[head(PROBATION)] : next[head(PROTECTED)];
+            if (sketch.frequency(keys[candidate]) > sketch.frequency(keys[victim])) {
+                unlink(victim);
+                remove(victim);
+                append(PROBATION, candidate);
+            } else {
+                remove(candidate);
+            }
+            evictions.increment();
+        }
+
+        private int head(int q) {
+            return keys.length + q;
+        }
+
+        private void append(int q, int slot) {
+            int head = head(q);
+            int last = prev[head];
+            next[last] = slot;
+            prev[slot] = last;
+            next[slot] = head;
+            prev[head] = slot;
+            queue[slot] = (byte) q;
+            queueSize[q]++;
+        }
+
+        private void unlink(int slot) {
+            next[prev[slot]] = next[slot];
+            prev[next[slot]] = prev[slot];
+            queueSize[queue[slot]]--;
+        }
+
+        // Frees an unlinked slot
+        private void remove(int slot) {
+            deleteIndex(slot);
+            freeSlots[freeCount++] = slot;
+        }
+
+        private int find(long key) {
+            for (int i = (int) FrequencySketch.mix(key) & indexMask; index[i] != 0; i = (i + 1) & indexMask) {
+                if (keys[index[i] - 1] == key) {
+                    return index[i] - 1;
+                }
+            }
+            return -1;
+        }
+
+        private void insertIndex(int slot) {
+            int i = (int) FrequencySketch.mix(keys[slot]) & indexMask;
+            while (index[i] != 0) {
+                i = (i + 1) & indexMask;
+            }
+            index[i] = slot + 1;
+        }
+
+        // Linear probing delete with backward shift, so lookups never need tombstones
+        private void deleteIndex(int slot) {
+            int i = (int) FrequencySketch.mix(keys[slot]) & indexMask;
+            while (index[i] != slot + 1) {
+                i = (i + 1) & indexMask;
+            }
+            int hole = i;
+            for (int j = (hole + 1) & indexMask; index[j] != 0; j = (j + 1) & indexMask) {
+                int home = (int) FrequencySketch.mix(keys[index[j] - 1]) & indexMask;
+                // Move the entry at j into the hole if the hole lies on its probe path (cyclically between home and j)
+                if (((j - home) & indexMask) >= ((j - hole) & indexMask)) {
+                    index[hole] = index[j];
+                    hole = j;
+                }
+            }
+            index[hole] = 0;
+        }
+    }
+
+    public static void main(String[] args) {
+        // Path to the dataset, cache size and number of queries
+        String filePath = args.length > 0 ? args[0] : "reachability.txt";
+        int capacity = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int queries = args.length > 2 ? Integer.parseInt(args[2]) : 50000;
+
+        ShortestPath shortestPath = new ShortestPath(filePath);
+        int numNodes = shortestPath.csr.nodeCount();
+
+        // Skewed traffic: Zipf-like popularity over cities, so a few pairs are asked for over and over
+        double[] cumulative = new double[numNodes];
+        double total = 0;
+        for (int i = 0; i < numNodes; i++) {
+            total += 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+        Random random = new Random(15);
+        int[] sources = new int[queries];
+        int[] destinations = new int[queries];
+        for (int q = 0; q < queries; q++) {
+            sources[q] = shortestPath.csr.nodeId(zipf(cumulative, random.nextDouble() * total));
+            destinations[q] = shortestPath.csr.nodeId(zipf(cumulative, random.nextDouble() * total));
+        }
+
+        long start = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            shortestPath.findShortestDistance(sources[q], destinations[q]);
+        }
+        double uncachedMillis = (System.nanoTime() - start) / 1e6;
+
+        ShortestPathCache cache = new ShortestPathCache(capacity, 8, Runtime.getRuntime().availableProcessors());
+        shortestPath.setCache(cache);
+        int mismatches = 0;
+        start = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            shortestPath.findShortestDistance(sources[q], destinations[q]);
+        }
+        double cachedMillis = (System.nanoTime() - start) / 1e6;
+        for (int q = 0; q < 1000; q++) {
+            if (shortestPath.findShortestDistance(sources[q], destinations[q]) != shortestPath.findShortestDistanceUnidirectional(sources[q], destinations[q])) {
+                mismatches++;
+            }
+        }
+        System.out.printf("%d skewed queries: %.1f ms uncached, %.1f ms cached (%d mismatches)%n", queries, uncachedMillis, cachedMillis, mismatches);
+        System.out.println("Cache: " + cache);
+
+        // A changed graph (here: every travel time doubled) must not be answered from the old entries
+        EdgeList doubled = new EdgeList();
+        CsrGraph graph = shortestPath.csr;
+        for (int u = 0; u < numNodes; u++) {
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                doubled.add(graph.nodeId(u), graph.nodeId(graph.targets[e]), 2 * graph.weights[e]);
+            }
+        }
+        ShortestPath changed = new ShortestPath(CsrGraph.fromEdges(doubled));
+        changed.setCache(cache);
+        System.out.println("After doubling every weight: " + changed.findShortestDistance(sources[0], destinations[0]) + " (was "
+                + shortestPath.findShortestDistanceUnidirectional(sources[0], destinations[0]) + "), invalidations " + cache.invalidationCount());
+        System.out.println("Graph swap interleavings: " + checkInterleavings(graph, changed.csr) + " violations");
+    }
+
+    /*
+    * Replays, one call at a time, the orders in which a query on the old graph (A) and one on the new graph (B) can reach
+    * the cache around a graph swap; returns how many of them let a distance cross from one graph to the other.
+    * */
+    static int checkInterleavings(CsrGraph oldGraph, CsrGraph newGraph) {
+        int violations = 0;
+        int[] tree = new int[oldGraph.nodeCount()];
+
+        // A binds to the old graph, B swaps in the new one, then A stores its old distance and tree: B must not see them
+        ShortestPathCache cache = new ShortestPathCache(64, 1, 1);
+        int a = cache.checkGraph(oldGraph);
+        int b = cache.checkGraph(newGraph);
+        cache.put(0, 1, 111, a);
+        cache.putTree(0, tree, a);
+        violations += cache.get(0, 1, b) != MISS || cache.get(0, 2, b) != MISS ? 1 : 0;
+
+        // B is bound to the new graph when A, still on the old snapshot, checks in: A must not rebind or clear the cache
+        cache = new ShortestPathCache(64, 1, 1);
+        cache.checkGraph(oldGraph);
+        b = cache.checkGraph(newGraph);
+        cache.put(0, 1, 222, b);
+        violations += cache.checkGraph(oldGraph) != STALE ? 1 : 0;
+        violations += cache.checkGraph(newGraph) != b || cache.get(0, 1, b) != 222 ? 1 : 0;
+
+        // A stored an old distance before the swap: B must not read it
+        cache = new ShortestPathCache(64, 1, 1);
+        a = cache.checkGraph(oldGraph);
+        cache.put(0, 1, 333, a);
+        b = cache.checkGraph(newGraph);
+        violations += cache.get(0, 1, b) != MISS ? 1 : 0;
+
+        // A read its generation before invalidate(): its later store must be dropped
+        cache = new ShortestPathCache(64, 1, 1);
+        a = cache.checkGraph(newGraph);
+        cache.invalidate();
+        cache.put(0, 1, 444, a);
+        violations += cache.get(0, 1, cache.checkGraph(newGraph)) != MISS ? 1 : 0;
+        return violations;
+    }
+
+    // Index of the first cumulative weight above u
+    private static int zipf(double[] cumulative, double u) {
+        int position = Arrays.binarySearch(cumulative, u);
+        return Math.min(position < 0 ? -position - 1 : position, cumulative.length - 1);
+    }
+    /*
+     * Time Complexity: O(1) expected per lookup and insert, O(hot origins) to find a tree
+     * Space Complexity: O(capacity) for the pairs, O(hot origins * V) for the trees
+     * */
+}
@@ -0,0 +1,568 @@
+/*
+* **** STRONGLY CONNECTED COMPONENTS AND CONDENSATION DAG ****
+* Two cities are in the same component when each can reach the other. Contracting every component to one node gives the
+* condensation, a DAG that is usually much smaller than the graph: u reaches v exactly when component(u) reaches
+* component(v) in it, so reachability questions can be answered on the DAG.
+*
+* TARJAN (one DFS):
+*       Every node gets its DFS index and the lowest index reachable through its subtree and one back edge (low link). A node
+*       whose low link is its own index is the root of a component, which is everything above it on the component stack.
+*       Iterative: the call stack is an array of (node, next edge) pairs.
+*
+* KOSARAJU (two DFS, on DepthFirstSearch):
+*       A DFS forest over the graph gives a postorder; a second forest over the reverse graph, with roots taken in reverse
+*       postorder, reaches exactly one component per root.
+*
+* FORWARD-BACKWARD (parallel):
+*       1. Trim: a node without in-edges or out-edges from the remaining nodes is a component of its own; removing it can
+*          expose more (long chains vanish here instead of in the recursion).
+*       2. Pick a pivot of a node set; the nodes it reaches forward and backward within the set are its component. The nodes
+*          only reached forward, only reached backward, and not reached at all form three sets without a component in
+*          common, solved independently as fork/join tasks. Set membership is a color per node; every set gets a fresh color,
+*          so tasks never confuse each other's nodes.
+*
+* All three number the components in topological order of the condensation: every DAG edge goes from a lower to a higher
+* component ID. Nodes are dense indices.
+* */
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StronglyConnectedComponents {
+
+    private final CsrGraph graph;
+    // Component ID of every node, and the nodes of component c at members[memberOffsets[c] .. memberOffsets[c + 1])
+    final int[] component;
+    final int count;
+    final int[] memberOffsets;
+    final int[] members;
+    private volatile CsrGraph condensation;
+
+    // Constructor from any component labels 0 .. count - 1: renumbers them in topological order of the condensation
+    private StronglyConnectedComponents(CsrGraph graph, int[] labels, int count) {
+        this.graph = graph;
+        this.count = count;
+        int numNodes = graph.nodeCount();
+
+        // Kahn's algorithm on the component graph (parallel edges counted consistently, self-loops skipped)
+        int[] inDegree = new int[count];
+        for (int u = 0; u < numNodes; u++) {
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                if (labels[graph.targets[e]] != labels[u]) {
+                    inDegree[labels[graph.targets[e]]]++;
+                }
+            }
+        }
+        int[] labelOffsets = new int[count + 1];
+        for (int u = 0; u < numNodes; u++) {
+            labelOffsets[labels[u] + 1]++;
+        }
+        for (int c = 0; c < count; c++) {
+            labelOffsets[c + 1] += labelOffsets[c];
+        }
+        int[] labelMembers = new int[numNodes];
+        int[] cursor = Arrays.copyOf(labelOffsets, count);
+        for (int u = 0; u < numNodes; u++) {
+            labelMembers[cursor[labels[u]]++] = u;
+        }
+        int[] topological = new int[count];
+        int head = 0;
+        int tail = 0;
+        for (int c = 0; c < count; c++) {
+            if (inDegree[c] == 0) {
+                topological[tail++] = c;
+            }
+        }
+        int[] rename = new int[count];
+        while (head < tail) {
+            int c = topological[head];
+            rename[c] = head++;
+            for (int i = labelOffsets[c]; i < labelOffsets[c + 1]; i++) {
+                int u = labelMembers[i];
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    int d = labels[graph.targets[e]];
+                    if (d != c && --inDegree[d] == 0) {
+                        topological[tail++] = d;
+                    }
+                }
+            }
+        }
+        if (tail != count) {
+            throw new IllegalStateException("Component labels do not form a DAG");
+        }
+
+        component = new int[numNodes];
+        for (int u = 0; u < numNodes; u++) {
+            component[u] = rename[labels[u]];
+        }
+        memberOffsets = new int[count + 1];
+        for (int c = 0; c < count; c++) {
+            memberOffsets[rename[c] + 1] = labelOffsets[c + 1] - labelOffsets[c];
+        }
+        for (int c = 0; c < count; c++) {
+            memberOffsets[c + 1] += memberOffsets[c];
+        }
+        members = new int[numNodes];
+        cursor = Arrays.copyOf(memberOffsets, count);
+        for (int u = 0; u < numNodes; u++) {
+            members[cursor[component[u]]++] = u;
+        }
+    }
+
+    // Method to find the components with Tarjan's algorithm (iterative)
+    public static StronglyConnectedComponents tarjan(CsrGraph graph) {
+        int numNodes = graph.nodeCount();
+        int[] index = new int[numNodes];
+        int[] low = new int[numNodes];
+        int[] labels = new int[numNodes];
+        boolean[] onStack = new boolean[numNodes];
+        int[] componentStack = new int[numNodes];
+        int[] callNode = new int[numNodes];
+        int[] callEdge = new int[numNodes];
+        Arrays.fill(index, -1);
+        int nextIndex = 0;
+        int componentTop = 0;
+        int count = 0;
+
+        for (int root = 0; root < numNodes; root++) {
+            if (index[root] >= 0) {
+                continue;
+            }
+            int top = 0;
+            callNode[0] = root;
+            callEdge[0] = graph.offsets[root];
+            index[root] = low[root] = nextIndex++;
+            componentStack[componentTop++] = root;
+            onStack[root] = true;
+            while (top >= 0) {
+                int node = callNode[top];
+                int e = callEdge[top];
+                if (e < graph.offsets[node + 1]) {
+                    callEdge[top] = e + 1;
+                    int next = graph.targets[e];
+                    if (index[next] < 0) {
+                        // Descend into next
+                        index[next] = low[next] = nextIndex++;
+                        componentStack[componentTop++] = next;
+                        onStack[next] = true;
+                        top++;
+                        callNode[top] = next;
+                        callEdge[top] = graph.offsets[next];
+                    } else if (onStack[next] && index[next] < low[node]) {
+                        low[node] = index[next];
+                    }
+                    continue;
+                }
+                // All edges done: pop the component if node is its root, then return to the caller
+                if (low[node] == index[node]) {
+                    int member;
+                    do {
+                        member = componentStack[--componentTop];
+                        onStack[member] = false;
+                        labels[member] = count;
+                    } while (member != node);
+                    count++;
+                }
+                top--;
+                if (top >= 0 && low[node] < low[callNode[top]]) {
+                    low[callNode[top]] = low[node];
+                }
+            }
+        }
+        return new StronglyConnectedComponents(graph, labels, count);
+    }
+
+    // Method to find the components with Kosaraju's algorithm (two iterative DFS forests)
+    public static StronglyConnectedComponents kosaraju(CsrGraph graph) {
+        int numNodes = graph.nodeCount();
+        DepthFirstSearch forward = new DepthFirstSearch(graph);
+        forward.start();
+        for (int u = 0; u < numNodes; u++) {
+            forward.visit(u);
+        }
+        DepthFirstSearch backward = new DepthFirstSearch(graph.reverse());
+        backward.start();
+        int[] labels = new int[numNodes];
+        int count = 0;
+        for (int i = forward.postorderCount - 1; i >= 0; i--) {
+            int first = backward.preorderCount;
+            if (backward.visit(forward.postorder[i]) > 0) {
+                for (int j = first; j < backward.preorderCount; j++) {
+                    labels[backward.preorder[j]] = count;
+                }
+                count++;
+            }
+        }
+        return new StronglyConnectedComponents(graph, labels, count);
+    }
+
+    // Method to find the components with trimming and parallel forward-backward search
+    public static StronglyConnectedComponents forwardBackward(CsrGraph graph, int parallelism) {
+        int numNodes = graph.nodeCount();
+        CsrGraph reverse = graph.reverse();
+        int[] labels = new int[numNodes];
+        AtomicInteger nextLabel = new AtomicInteger();
+
+        // 1. Trim nodes without in- or out-edges among the remaining nodes (self-loops do not count)
+        int[] inDegree = new int[numNodes];
+        int[] outDegree = new int[numNodes];
+        for (int u = 0; u < numNodes; u++) {
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                if (graph.targets[e] != u) {
+                    outDegree[u]++;
+                    inDegree[graph.targets[e]]++;
+                }
+            }
+        }
+        boolean[] trimmed = new boolean[numNodes];
+        int[] queue = new int[numNodes];
+        int tail = 0;
+        for (int u = 0; u < numNodes; u++) {
+            if (inDegree[u] == 0 || outDegree[u] == 0) {
+                trimmed[u] = true;
+                queue[tail++] = u;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int u = queue[head];
+            labels[u] = nextLabel.getAndIncrement();
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                int v = graph.targets[e];
+                if (v != u && !trimmed[v] && --inDegree[v] == 0) {
+                    trimmed[v] = true;
+                    queue[tail++] = v;
+                }
+            }
+            for (int e = reverse.offsets[u]; e < reverse.offsets[u + 1]; e++) {
+                int v = reverse.targets[e];
+                if (v != u && !trimmed[v] && --outDegree[v] == 0) {
+                    trimmed[v] = true;
+                    queue[tail++] = v;
+                }
+            }
+        }
+
+        // 2. Forward-backward on the rest, all starting with color 0 (trimmed nodes get a color no set uses)
+        int[] color = new int[numNodes];
+        int[] rest = new int[numNodes - tail];
+        int size = 0;
+        for (int u = 0; u < numNodes; u++) {
+            if (trimmed[u]) {
+                color[u] = -1;
+            } else {
+                rest[size++] = u;
+            }
+        }
+        AtomicInteger nextColor = new AtomicInteger(1);
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            pool.invoke(new ForwardBackwardTask(graph, reverse, color, labels, nextColor, nextLabel, rest, 0));
+        } finally {
+            pool.shutdown();
+        }
+        return new StronglyConnectedComponents(graph, labels, nextLabel.get());
+    }
+
+    /*
+    * One node set of the forward-backward recursion. The component of the pivot is labeled here; the forward-only and
+    * backward-only sets are forked, and the unreached set is handled by the same task in a loop (so the recursion does not
+    * get deeper for it).
+    * */
+    private static final class ForwardBackwardTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final CsrGraph graph;
+        private final CsrGraph reverse;
+        private final int[] color;
+        private final int[] labels;
+        private final AtomicInteger nextColor;
+        private final AtomicInteger nextLabel;
+        private int[] nodes;
+        private int setColor;
+
+        ForwardBackwardTask(CsrGraph graph, CsrGraph reverse, int[] color, int[] labels, AtomicInteger nextColor,
+                            AtomicInteger nextLabel, int[] nodes, int setColor) {
+            this.graph = graph;
+            this.reverse = reverse;
+            this.color = color;
+            this.labels = labels;
+            this.nextColor = nextColor;
+            this.nextLabel = nextLabel;
+            this.nodes = nodes;
+            this.setColor = setColor;
+        }
+
+        @Override
+        protected void compute() {
+            ForkJoinTask<?>[] forked = new ForkJoinTask<?>[0];
+            int[] queue = new int[nodes.length];
+            while (nodes.length > 0) {
+                if (nodes.length == 1) {
+                    labels[nodes[0]] = nextLabel.getAndIncrement();
+                    break;
+                }
+                int pivot = nodes[0];
+                int forwardColor = nextColor.getAndIncrement();
+                int backwardColor = nextColor.getAndIncrement();
+                int componentColor = nextColor.getAndIncrement();
+
+                // Forward reach of the pivot within the set
+                int tail = 0;
+                color[pivot] = forwardColor;
+                queue[tail++] = pivot;
+                for (int head = 0; head < tail; head++) {
+                    int u = queue[head];
+                    for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                        int v = graph.targets[e];
+                        if (color[v] == setColor) {
+                            color[v] = forwardColor;
+                            queue[tail++] = v;
+                        }
+                    }
+                }
+                // Backward reach: forward-reached nodes join the component, unreached ones become backward-only
+                tail = 0;
+                color[pivot] = componentColor;
+                queue[tail++] = pivot;
+                for (int head = 0; head < tail; head++) {
+                    int u = queue[head];
+                    for (int e = reverse.offsets[u]; e < reverse.offsets[u + 1]; e++) {
+                        int v = reverse.targets[e];
+                        if (color[v] == forwardColor) {
+                            color[v] = componentColor;
+                            queue[tail++] = v;
+                        } else if (color[v] == setColor) {
+                            color[v] = backwardColor;
+                            queue[tail++] = v;
+                        }
+                    }
+                }
+
+                // Split the set by color
+                int label = nextLabel.getAndIncrement();
+                int forwardCount = 0;
+                int backwardCount = 0;
+                int restCount = 0;
+                for (int u : nodes) {
+                    if (color[u] == forwardColor) {
+                        forwardCount++;
+                    } else if (color[u] == backwardColor) {
+                        backwardCount++;
+                    } else if (color[u] == setColor) {
+                        restCount++;
+                    }
+                }
+                int[] forwardOnly = new int[forwardCount];
+                int[] backwardOnly = new int[backwardCount];
+                int[] unreached = new int[restCount];
+                forwardCount = backwardCount = restCount = 0;
+                for (int u : nodes) {
+                    if (color[u] == componentColor) {
+                        labels[u] = label;
+                    } else if (color[u] == forwardColor) {
+                        forwardOnly[forwardCount++] = u;
+                    } else if (color[u] == backwardColor) {
+                        backwardOnly[backwardCount++] = u;
+                    } else {
+                        unreached[restCount++] = u;
+                    }
+                }
+                forked = Arrays.copyOf(forked, forked.length + 2);
+                forked[forked.length - 2] = new ForwardBackwardTask(graph, reverse, color, labels, nextColor, nextLabel,
+                        forwardOnly, forwardColor).fork();
+                forked[forked.length - 1] = new ForwardBackwardTask(graph, reverse, color, labels, nextColor, nextLabel,
+                        backwardOnly, backwardColor).fork();
+                nodes = unreached;
+            }
+            for (ForkJoinTask<?> task : forked) {
+                task.join();
+            }
+        }
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int componentOf(int node) {
+        return component[node];
+    }
+
+    public int size(int component) {
+        return memberOffsets[component + 1] - memberOffsets[component];
+    }
+
+    /*
+    * Method to get the condensation DAG: node c is component c (node IDs are the component IDs), with one edge c -> d when
+    * some edge leads from c to d, weighted with the lightest such edge (so DAG distances are lower bounds of graph distances).
+    * */
+    public CsrGraph condensation() {
+        CsrGraph result = condensation;
+        if (result == null) {
+            synchronized (this) {
+                result = condensation;
+                if (result == null) {
+                    condensation = result = buildCondensation();
+                }
+            }
+        }
+        return result;
+    }
+
+    private CsrGraph buildCondensation() {
+        int[] offsets = new int[count + 1];
+        int[] targets = new int[graph.edgeCount()];
+        int[] weights = new int[graph.edgeCount()];
+        int[] seenBy = new int[count];
+        int[] position = new int[count];
+        Arrays.fill(seenBy, -1);
+        int arcs = 0;
+        for (int c = 0; c < count; c++) {
+            for (int i = memberOffsets[c]; i < memberOffsets[c + 1]; i++) {
+                int u = members[i];
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    int d = component[graph.targets[e]];
+                    if (d == c) {
+                        continue;
+                    }
+                    if (seenBy[d] != c) {
+                        seenBy[d] = c;
+                        position[d] = arcs;
+                        targets[arcs] = d;
+                        weights[arcs++] = graph.weights[e];
+                    } else if (graph.weights[e] < weights[position[d]]) {
+                        weights[position[d]] = graph.weights[e];
+                    }
+                }
+            }
+            offsets[c + 1] = arcs;
+        }
+        int[] ids = new int[count];
+        for (int c = 0; c < count; c++) {
+            ids[c] = c;
+        }
+        return new CsrGraph(ids, offsets, Arrays.copyOf(targets, arcs), Arrays.copyOf(weights, arcs));
+    }
+
+    /*
+    * Method to check whether source reaches target, answered on the condensation: same component is immediate, a higher
+    * component ID can never reach a lower one, otherwise a DFS over the DAG that skips components past the target's.
+    * */
+    public boolean isReachable(int source, int target) {
+        int from = component[source];
+        int to = component[target];
+        if (from == to) {
+            return true;
+        }
+        if (from > to) {
+            return false;
+        }
+        CsrGraph dag = condensation();
+        boolean[] visited = new boolean[count];
+        int[] stack = new int[count];
+        int top = 0;
+        stack[top++] = from;
+        visited[from] = true;
+        while (top > 0) {
+            int c = stack[--top];
+            for (int e = dag.offsets[c]; e < dag.offsets[c + 1]; e++) {
+                int d = dag.targets[e];
+                if (d == to) {
+                    return true;
+                }
+                if (d < to && !visited[d]) {
+                    visited[d] = true;
+                    stack[top++] = d;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Whether two results put the same nodes together (the component IDs may differ)
+    boolean samePartition(StronglyConnectedComponents other) {
+        if (count != other.count) {
+            return false;
+        }
+        int[] mapping = new int[count];
+        Arrays.fill(mapping, -1);
+        for (int u = 0; u < component.length; u++) {
+            if (mapping[component[u]] < 0) {
+                mapping[component[u]] = other.component[u];
+            } else if (mapping[component[u]] != other.component[u]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Path to the dataset and the length of the synthetic chain that a recursive DFS cannot handle
+        String filePath = args.length > 0 ? args[0] : "reachability.txt";
+        int chainLength = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        CsrGraph graph = GraphReader.loadGraph(filePath);
+        long start = System.nanoTime();
+        StronglyConnectedComponents byTarjan = tarjan(graph);
+        double tarjanMillis = (System.nanoTime() - start) / 1e6;
+        start = System.nanoTime();
+        StronglyConnectedComponents byKosaraju = kosaraju(graph);
+        double kosarajuMillis = (System.nanoTime() - start) / 1e6;
+        start = System.nanoTime();
+        StronglyConnectedComponents byForwardBackward = forwardBackward(graph, processors);
+        double forwardBackwardMillis = (System.nanoTime() - start) / 1e6;
+
+        int largest = 0;
+        for (int c = 0; c < byTarjan.count; c++) {
+            largest = Math.max(largest, byTarjan.size(c));
+        }
+        CsrGraph dag = byTarjan.condensation();
+        System.out.printf("%d nodes, %d edges: %d components (largest %d nodes), condensation DAG with %d edges%n",
+                graph.nodeCount(), graph.edgeCount(), byTarjan.count, largest, dag.edgeCount());
+        System.out.printf("  Tarjan %.1f ms, Kosaraju %.1f ms (same: %b), forward-backward on %d threads %.1f ms (same: %b)%n",
+                tarjanMillis, kosarajuMillis, byTarjan.samePartition(byKosaraju), processors, forwardBackwardMillis,
+                byTarjan.samePartition(byForwardBackward));
+
+        // Reachability on the condensation vs a DFS on the graph
+        Random random = new Random(21);
+        DepthFirstSearch search = new DepthFirstSearch(graph);
+        int mismatches = 0;
+        int numNodes = graph.nodeCount();
+        for (int q = 0; q < 2000 && numNodes > 0; q++) {
+            int u = random.nextInt(numNodes);
+            int v = random.nextInt(numNodes);
+            search.run(u);
+            if (search.isVisited(v) != byForwardBackward.isReachable(u, v)) {
+                mismatches++;
+            }
+        }
+        System.out.printf("  2000 reachability queries on the condensation: %d mismatches%n", mismatches);
+
+        // A long chain with a cycle at its end: deep enough to overflow a recursive DFS
+        EdgeList chain = new EdgeList(chainLength);
+        for (int i = 0; i < chainLength - 1; i++) {
+            chain.add(i, i + 1, 1);
+        }
+        chain.add(chainLength - 1, chainLength - 100, 1);
+        CsrGraph chainGraph = CsrGraph.fromEdges(chain);
+        start = System.nanoTime();
+        int reached = new DepthFirstSearch(chainGraph).run(0);
+        StronglyConnectedComponents chainTarjan = tarjan(chainGraph);
+        StronglyConnectedComponents chainKosaraju = kosaraju(chainGraph);
+        StronglyConnectedComponents chainForwardBackward = forwardBackward(chainGraph, processors);
+        System.out.printf("  chain of %d nodes: DFS reached %d, %d components (same in all three: %b) in %.1f ms%n", chainLength,
+                reached, chainTarjan.count, chainTarjan.samePartition(chainKosaraju) && chainTarjan.samePartition(chainForwardBackward),
+                (System.nanoTime() - start) / 1e6);
+    }
+    /*
+     * Time Complexity: O(V + E) for Tarjan, Kosaraju, trimming and the condensation; forward-backward O((V + E) * depth of the
+     *                  recursion) work, spread over the threads
+     * Space Complexity: O(V + E)
+     * */
+}